@@ -1,5 +1,6 @@
 plugins {
     java
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 repositories {
@@ -28,6 +29,7 @@ dependencies {
     compileOnly(group = "net.runelite", name = "client", version = runeLiteVersion)
     testImplementation(group = "net.runelite", name = "client", version = runeLiteVersion)
     testImplementation(group = "net.runelite", name = "jshell", version = runeLiteVersion)
+    jmhImplementation(group = "net.runelite", name = "client", version = runeLiteVersion)
 
     val junitVersion = "5.5.2" // max version before junit-bom was added to pom files, due to runelite restrictions
     testImplementation(group = "org.junit.jupiter", name = "junit-jupiter-api", version = junitVersion)
@@ -42,6 +44,11 @@ dependencies {
     }
 }
 
+jmh {
+    // allocation rates matter as much as timings on the logging hot paths
+    profilers.add("gc")
+}
+
 group = "actionlogger"
 version = "0.1.9"
 
@@ -52,6 +59,10 @@ tasks.withType<JavaCompile> {
     targetCompatibility = version
 }
 
+tasks.test {
+    useJUnitPlatform()
+}
+
 tasks.withType<AbstractArchiveTask>().configureEach {
     isPreserveFileTimestamps = false
     isReproducibleFileOrder = true
@@ -0,0 +1,139 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger;
+
+import net.runelite.api.Client;
+import net.runelite.api.Player;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.widgets.Widget;
+
+import javax.annotation.Nonnull;
+import java.awt.Rectangle;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+/**
+ * Stand-in {@link Client} for benchmarks, answering only the calls the trackers make
+ */
+public final class BenchmarkClient {
+    public static final int VARPS = 5000;
+
+    private BenchmarkClient() {
+    }
+
+    @Nonnull
+    public static Client create() {
+        return create(Map.of());
+    }
+
+    /**
+     * @param widgets widgets by component id, which is also what {@code getWidget(groupId, childId)} looks up
+     */
+    @Nonnull
+    public static Client create(@Nonnull Map<Integer, Widget> widgets) {
+        var varps = new int[VARPS];
+        var player = proxy(Player.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName":
+                    return "Player";
+                case "getWorldLocation":
+                    return new WorldPoint(3222, 3218, 0);
+                default:
+                    return unsupported(proxy, method.getName(), args);
+            }
+        });
+        return proxy(Client.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getVarps":
+                    return varps;
+                case "getLocalPlayer":
+                    return player;
+                case "getWidget":
+                    return widgets.get(args.length == 1 ? (int) args[0] : (int) args[0] << 16 | (int) args[1]);
+                default:
+                    return unsupported(proxy, method.getName(), args);
+            }
+        });
+    }
+
+    @Nonnull
+    public static Widget widget(int id, @Nonnull String text, @Nonnull Widget... children) {
+        // like the client, a widget without children has none rather than an empty array
+        var childWidgets = children.length == 0 ? null : children;
+        return proxy(Widget.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getId":
+                    return id;
+                case "getText":
+                    return text;
+                case "getChildren":
+                    return childWidgets;
+                case "getModelId":
+                    return -1;
+                default:
+                    return unsupported(proxy, method.getName(), args);
+            }
+        });
+    }
+
+    /**
+     * A widget as the widget dump sees it, with its own bounds and children
+     */
+    @Nonnull
+    public static Widget widget(int id, int parentId, boolean hidden, @Nonnull Widget[] dynamicChildren, @Nonnull Widget[] staticChildren) {
+        var bounds = new Rectangle(id & 0xFF, id >>> 8 & 0xFF, 36, 32);
+        var noChildren = new Widget[0];
+        return proxy(Widget.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getId":
+                    return id;
+                case "getParentId":
+                    return parentId;
+                case "getType":
+                case "getContentType":
+                    return 0;
+                case "getText":
+                case "getName":
+                    return "";
+                case "getItemId":
+                    return dynamicChildren.length == 0 ? 995 : -1;
+                case "getModelId":
+                case "getSpriteId":
+                    return -1;
+                case "getBounds":
+                    return new Rectangle(bounds);
+                case "isHidden":
+                case "isSelfHidden":
+                    return hidden;
+                case "getDynamicChildren":
+                    return dynamicChildren;
+                case "getStaticChildren":
+                    return staticChildren;
+                case "getNestedChildren":
+                    return noChildren;
+                default:
+                    return unsupported(proxy, method.getName(), args);
+            }
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler));
+    }
+
+    private static Object unsupported(Object proxy, String method, Object[] args) {
+        switch (method) {
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "Benchmark" + proxy.getClass().getInterfaces()[0].getSimpleName();
+            default:
+                throw new UnsupportedOperationException(method);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger;
+
+import com.google.gson.stream.JsonWriter;
+import net.runelite.api.widgets.Widget;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Widget dump of an open bank: a synthetic tree with a container of 1200 item slots, of which those past the first 800 are
+ * hidden, next to a few dozen other components.
+ * <p>
+ * {@link #capture} is the client thread's part of the dump, {@link #encode} the writer thread's. The widgets are proxies,
+ * so every call into them costs more than in the client; compare results with each other rather than with frame times.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DumpBenchmark {
+    private static final int GROUP = 12;
+    private static final int SLOTS = 1200;
+    private static final int VISIBLE_SLOTS = 800;
+    private static final int COMPONENTS = 40;
+
+    @Param({"false", "true"})
+    public boolean skipHidden;
+
+    private final WidgetSnapshot snapshot = new WidgetSnapshot();
+    private final JsonWriter out = new JsonWriter(Writer.nullWriter());
+    private Widget root;
+    private WidgetSnapshot captured;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var rootId = GROUP << 16;
+        var containerId = rootId | 1;
+        var none = new Widget[0];
+
+        var slots = new Widget[SLOTS];
+        for (var i = 0; i < SLOTS; i++) {
+            slots[i] = BenchmarkClient.widget(containerId, containerId, i >= VISIBLE_SLOTS, none, none);
+        }
+
+        var components = new Widget[COMPONENTS];
+        components[0] = BenchmarkClient.widget(containerId, rootId, false, slots, none);
+        for (var i = 1; i < COMPONENTS; i++) {
+            components[i] = BenchmarkClient.widget(rootId | (i + 1), rootId, false, none, none);
+        }
+        root = BenchmarkClient.widget(rootId, -1, false, none, components);
+
+        snapshot.clear();
+        snapshot.addRoot(root, skipHidden);
+        captured = snapshot.copy();
+        out.setLenient(true);
+    }
+
+    @Benchmark
+    public WidgetSnapshot capture() {
+        snapshot.clear();
+        snapshot.addRoot(root, skipHidden);
+        return snapshot.copy();
+    }
+
+    @Benchmark
+    public void encode() throws IOException {
+        captured.write(out);
+    }
+}
@@ -0,0 +1,119 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.trackers;
+
+import actionlogger.BenchmarkClient;
+import actionlogger.writers.JsonWriter;
+import actionlogger.writers.WriterSettings;
+import com.google.gson.Gson;
+import net.runelite.api.events.GameTick;
+import net.runelite.api.events.WidgetLoaded;
+import net.runelite.api.widgets.ComponentID;
+import net.runelite.api.widgets.Widget;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client thread time {@link DialogueTracker} spends on a game tick, with no dialogue open and while the same dialogue stays
+ * open, which is what it does on almost every tick
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DialogueTrackerBenchmark {
+    public enum OpenDialogue {
+        NONE,
+        NPC,
+        OPTIONS,
+    }
+
+    @Param
+    public OpenDialogue dialogue;
+
+    private final GameTick tick = new GameTick();
+    private Path dir;
+    private JsonWriter writer;
+    private DialogueTracker tracker;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("actionlogger-jmh");
+        writer = new JsonWriter(new Gson(), () -> 1, WriterSettings.builder().build(), dir.toFile());
+        writer.start();
+
+        Map<Integer, Widget> widgets = new HashMap<>();
+        var groupId = 0;
+        switch (dialogue) {
+            case NPC:
+                widgets.put(ComponentID.DIALOG_NPC_NAME, BenchmarkClient.widget(ComponentID.DIALOG_NPC_NAME, "Lumbridge Guide"));
+                widgets.put(ComponentID.DIALOG_NPC_TEXT, BenchmarkClient.widget(ComponentID.DIALOG_NPC_TEXT, "Greetings, adventurer. How may I help you?"));
+                groupId = ComponentID.DIALOG_NPC_TEXT >>> 16;
+                break;
+            case OPTIONS:
+                var options = new Widget[] {
+                    BenchmarkClient.widget(ComponentID.DIALOG_OPTION_OPTIONS, "Select an option"),
+                    BenchmarkClient.widget(ComponentID.DIALOG_OPTION_OPTIONS, "Where can I find a quest to go on?"),
+                    BenchmarkClient.widget(ComponentID.DIALOG_OPTION_OPTIONS, "What monsters should I fight?"),
+                    BenchmarkClient.widget(ComponentID.DIALOG_OPTION_OPTIONS, "Where can I make money?"),
+                    BenchmarkClient.widget(ComponentID.DIALOG_OPTION_OPTIONS, ""),
+                };
+                widgets.put(ComponentID.DIALOG_OPTION_OPTIONS, BenchmarkClient.widget(ComponentID.DIALOG_OPTION_OPTIONS, "", options));
+                groupId = ComponentID.DIALOG_OPTION_OPTIONS >>> 16;
+                break;
+            case NONE:
+            default:
+                break;
+        }
+        if (groupId != 0) {
+            widgets.put(groupId << 16, BenchmarkClient.widget(groupId << 16, ""));
+        }
+
+        tracker = new DialogueTracker(writer, BenchmarkClient.create(widgets));
+        if (groupId != 0) {
+            var loaded = new WidgetLoaded();
+            loaded.setGroupId(groupId);
+            tracker.onWidgetLoaded(loaded);
+        }
+        // starts the dialogue, so the measured ticks only check whether it's still the same
+        tracker.onGameTick(tick);
+        writer.flush().join();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        writer.closeAsync().join();
+        try (var files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public void gameTick() {
+        tracker.onGameTick(tick);
+    }
+}
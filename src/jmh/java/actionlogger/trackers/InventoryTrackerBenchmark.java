@@ -0,0 +1,113 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.trackers;
+
+import actionlogger.ActionLoggerConfig;
+import actionlogger.writers.FlushPolicy;
+import actionlogger.writers.JsonWriter;
+import actionlogger.writers.WriterSettings;
+import com.google.gson.Gson;
+import net.runelite.api.Item;
+import net.runelite.api.ItemContainer;
+import net.runelite.api.events.ItemContainerChanged;
+import net.runelite.api.gameval.InventoryID;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of an item container event in {@link InventoryTracker}, for a full inventory. {@link #unchanged} is an event for a
+ * container that looks the same as before, e.g. after an item was used on another without effect, and {@link #oneSlotChanged}
+ * includes writing the record for a single changed slot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventoryTrackerBenchmark {
+    private static final int EVENTS_PER_INVOCATION = 1024;
+    private static final int SLOTS = 28;
+
+    private final Item[] items = new Item[SLOTS];
+    private Path dir;
+    private JsonWriter writer;
+    private InventoryTracker tracker;
+    private ItemContainerChanged event;
+    private int quantity = 1;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("actionlogger-jmh");
+        var settings = WriterSettings.builder().flushPolicy(FlushPolicy.BATCHED).build();
+        writer = new JsonWriter(new Gson(), () -> 1, settings, dir.toFile());
+        writer.start();
+        tracker = new InventoryTracker(writer, new ActionLoggerConfig() {
+            @Override
+            public int containerSnapshotInterval() {
+                return 0;
+            }
+        });
+
+        for (var slot = 0; slot < SLOTS; slot++) {
+            items[slot] = new Item(1511 + slot, 1);
+        }
+        var container = (ItemContainer) Proxy.newProxyInstance(ItemContainer.class.getClassLoader(), new Class<?>[] { ItemContainer.class }, (proxy, method, args) -> {
+            if ("getItems".equals(method.getName())) {
+                return items;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+        event = new ItemContainerChanged(InventoryID.INV, container);
+        tracker.onItemContainerChanged(event);
+        writer.flush().join();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        writer.closeAsync().join();
+        try (var files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_INVOCATION)
+    public void unchanged() {
+        for (var i = 0; i < EVENTS_PER_INVOCATION; i++) {
+            tracker.onItemContainerChanged(event);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_INVOCATION)
+    public void oneSlotChanged() {
+        for (var i = 0; i < EVENTS_PER_INVOCATION; i++) {
+            items[SLOTS - 1] = new Item(995, ++quantity);
+            tracker.onItemContainerChanged(event);
+        }
+        // wait for the writer thread, so the queue never overflows and its work is part of the measurement
+        writer.flush().join();
+    }
+}
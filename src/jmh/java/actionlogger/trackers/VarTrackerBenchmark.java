@@ -0,0 +1,167 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.trackers;
+
+import actionlogger.ActionLoggerConfig;
+import actionlogger.BenchmarkClient;
+import actionlogger.writers.FlushPolicy;
+import actionlogger.writers.JsonWriter;
+import actionlogger.writers.WriterSettings;
+import com.google.gson.Gson;
+import net.runelite.api.events.GameTick;
+import net.runelite.api.events.VarbitChanged;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a var event in {@link VarTracker}, for a storm of varps and varbits spread over the whole id range.
+ * <p>
+ * Most events of a storm don't change the value the tracker last saw, e.g. the other varbits of a changed varp,
+ * so {@link #unchanged} is the common case. {@link #boxedMapUnchanged} is the same lookup with boxed hash maps,
+ * as the tracker used to do it, for comparison. {@link #changed} also includes writing the records, and
+ * {@link #changedPerTick} does the same with {@link VarRecordMode#PER_TICK}, where every var changes four times a tick.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VarTrackerBenchmark {
+    private static final int EVENTS_PER_INVOCATION = 1024;
+    private static final int VARBITS = 16000;
+
+    private final VarbitChanged varbit = new VarbitChanged();
+    private final VarbitChanged varp = new VarbitChanged(); // varbit id -1
+    private final GameTick tick = new GameTick();
+    private final int[] ids = new int[EVENTS_PER_INVOCATION];
+    private final Map<Integer, Integer> boxedVarbits = new HashMap<>();
+    private final Map<Integer, Integer> boxedVarps = new HashMap<>();
+    private final Set<Integer> boxedIgnored = Set.of(1, 2, 3);
+    private Path dir;
+    private JsonWriter writer;
+    private VarTracker tracker;
+    private VarTracker perTickTracker;
+    private int value = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("actionlogger-jmh");
+        var settings = WriterSettings.builder().flushPolicy(FlushPolicy.BATCHED).build();
+        writer = new JsonWriter(new Gson(), () -> 1, settings, dir.toFile());
+        writer.start();
+        tracker = new VarTracker(writer, BenchmarkClient.create(), new ActionLoggerConfig() {
+        });
+        perTickTracker = new VarTracker(writer, BenchmarkClient.create(), new ActionLoggerConfig() {
+            @Override
+            public VarRecordMode varRecords() {
+                return VarRecordMode.PER_TICK;
+            }
+        });
+
+        for (var i = 0; i < ids.length; i++) {
+            // a fixed spread over the id range, so the tables don't stay in a few cache lines
+            ids[i] = 4 + (int) ((i * 2654435761L) % (BenchmarkClient.VARPS - 4));
+            varbit.setVarbitId(ids[i] * VARBITS / BenchmarkClient.VARPS);
+            varbit.setValue(1);
+            tracker.onVarbitChanged(varbit);
+            varp.setVarpId(ids[i]);
+            varp.setValue(1);
+            tracker.onVarbitChanged(varp);
+            boxedVarbits.put(varbit.getVarbitId(), 1);
+            boxedVarps.put(ids[i], 1);
+        }
+        writer.flush().join();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        writer.closeAsync().join();
+        try (var files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_INVOCATION)
+    public void unchanged() {
+        for (var i = 0; i < EVENTS_PER_INVOCATION; i += 2) {
+            varbit.setVarbitId(ids[i] * VARBITS / BenchmarkClient.VARPS);
+            varbit.setValue(1);
+            tracker.onVarbitChanged(varbit);
+            varp.setVarpId(ids[i + 1]);
+            varp.setValue(1);
+            tracker.onVarbitChanged(varp);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_INVOCATION)
+    public int boxedMapUnchanged() {
+        var changes = 0;
+        for (var i = 0; i < EVENTS_PER_INVOCATION; i += 2) {
+            changes += boxedChange(ids[i] * VARBITS / BenchmarkClient.VARPS, 1, boxedVarbits);
+            changes += boxedChange(ids[i + 1], 1, boxedVarps);
+        }
+        return changes;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_INVOCATION)
+    public void changed() {
+        value++;
+        for (var i = 0; i < EVENTS_PER_INVOCATION; i++) {
+            varp.setVarpId(ids[i]);
+            varp.setValue(value);
+            tracker.onVarbitChanged(varp);
+        }
+        // wait for the writer thread, so the queue never overflows and its work is part of the measurement
+        writer.flush().join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_INVOCATION)
+    public void changedPerTick() {
+        for (var i = 0; i < EVENTS_PER_INVOCATION; i++) {
+            value++;
+            varp.setVarpId(ids[i / 4]);
+            varp.setValue(value);
+            perTickTracker.onVarbitChanged(varp);
+        }
+        perTickTracker.onGameTick(tick);
+        writer.flush().join();
+    }
+
+    private int boxedChange(int id, int value, Map<Integer, Integer> map) {
+        if (boxedIgnored.contains(id)) {
+            return 0;
+        }
+
+        var previous = map.put(id, value);
+        var prevValue = previous != null ? previous : 0;
+        return prevValue != value ? 1 : 0;
+    }
+}
@@ -0,0 +1,89 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import actionlogger.ActionLoggerConfig;
+import actionlogger.BenchmarkClient;
+import actionlogger.trackers.VarTracker;
+import com.google.gson.Gson;
+import net.runelite.api.events.VarbitChanged;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end cost of a record, from the tracker on the calling thread until it's in the file on the writer thread.
+ * Run with {@code ./gradlew jmh}; the gc profiler reports the allocation per record as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonWriterBenchmark {
+    private static final int RECORDS_PER_INVOCATION = 1024;
+
+    /**
+     * Whether the records of an invocation are handed over as one tick frame instead of one by one
+     */
+    @Param({"false", "true"})
+    public boolean tickFrames;
+
+    private final VarbitChanged event = new VarbitChanged();
+    private Path dir;
+    private JsonWriter writer;
+    private VarTracker tracker;
+    private int value = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("actionlogger-jmh");
+        var settings = WriterSettings.builder().flushPolicy(FlushPolicy.BATCHED).tickFrames(tickFrames).build();
+        writer = new JsonWriter(new Gson(), () -> 1, settings, dir.toFile());
+        writer.start();
+        tracker = new VarTracker(writer, BenchmarkClient.create(), new ActionLoggerConfig() {
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        writer.closeAsync().join();
+        try (var files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS_PER_INVOCATION)
+    public void varbitChanged() {
+        value++;
+        for (var i = 0; i < RECORDS_PER_INVOCATION; i++) {
+            event.setVarbitId(4 + i);
+            event.setValue(value);
+            tracker.onVarbitChanged(event);
+        }
+        // wait for the writer thread, so the queue never overflows and its work is part of the measurement
+        writer.flush().join();
+    }
+}
@@ -0,0 +1,474 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger;
+
+import actionlogger.trackers.TrackedContainer;
+import actionlogger.trackers.VarRecordMode;
+import actionlogger.writers.Compression;
+import actionlogger.writers.FlushPolicy;
+import actionlogger.writers.LogFormat;
+import actionlogger.writers.OverflowPolicy;
+import actionlogger.writers.SegmentBackend;
+import actionlogger.writers.SyncPolicy;
+import actionlogger.writers.TimestampPrecision;
+import net.runelite.api.ChatMessageType;
+import net.runelite.client.config.Config;
+import net.runelite.client.config.ConfigGroup;
+import net.runelite.client.config.ConfigItem;
+import net.runelite.client.config.ConfigSection;
+import net.runelite.client.config.Range;
+import net.runelite.client.config.Units;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+@ConfigGroup(ActionLoggerConfig.GROUP)
+public interface ActionLoggerConfig extends Config {
+    String GROUP = "actionlogger";
+
+    @ConfigSection(
+        name = "Writer",
+        description = "How log records are written to disk",
+        position = 0
+    )
+    String writerSection = "writer";
+
+    @ConfigSection(
+        name = "Rotation",
+        description = "When a new log file is started",
+        position = 1
+    )
+    String rotationSection = "rotation";
+
+    @ConfigSection(
+        name = "Records",
+        description = "What is recorded with each record",
+        position = 2
+    )
+    String recordsSection = "records";
+
+    @ConfigSection(
+        name = "Dumps",
+        description = "What the dump command writes",
+        position = 3
+    )
+    String dumpSection = "dumps";
+
+    @ConfigItem(
+        keyName = "format",
+        name = "Format",
+        description = "How records are stored on disk. Applies from the next file on.<br>" +
+            "JSON lines: one JSON object per line<br>" +
+            "Binary: compact, convert with BinaryLogConverter to read",
+        position = 0,
+        section = writerSection
+    )
+    default LogFormat format() {
+        return LogFormat.JSON;
+    }
+
+    @ConfigItem(
+        keyName = "flushPolicy",
+        name = "Flush policy",
+        description = "When buffered records are flushed to disk.<br>" +
+            "Every record: nothing is buffered, highest I/O cost<br>" +
+            "Per tick: flush once per game tick, or earlier if a batch limit is reached<br>" +
+            "Batched: flush when a batch limit or the flush interval is reached",
+        position = 1,
+        section = writerSection
+    )
+    default FlushPolicy flushPolicy() {
+        return FlushPolicy.EVERY_RECORD;
+    }
+
+    @Range(min = 1)
+    @ConfigItem(
+        keyName = "flushMaxRecords",
+        name = "Batch max records",
+        description = "Flush once this many records are buffered",
+        position = 2,
+        section = writerSection
+    )
+    default int flushMaxRecords() {
+        return 512;
+    }
+
+    @Range(min = 1, max = 16384)
+    @Units(" KiB")
+    @ConfigItem(
+        keyName = "flushMaxKilobytes",
+        name = "Batch max size",
+        description = "Flush once this much data is buffered",
+        position = 3,
+        section = writerSection
+    )
+    default int flushMaxKilobytes() {
+        return 64;
+    }
+
+    @Range(min = 10)
+    @Units(Units.MILLISECONDS)
+    @ConfigItem(
+        keyName = "flushIntervalMs",
+        name = "Flush interval",
+        description = "Upper bound on how long a record may stay buffered before it is flushed.<br>" +
+            "This is the window of records that can be lost if the client is killed",
+        position = 4,
+        section = writerSection
+    )
+    default int flushIntervalMs() {
+        return 1000;
+    }
+
+    @ConfigItem(
+        keyName = "syncPolicy",
+        name = "Sync policy",
+        description = "When flushed data is forced to the disk, so it survives a power loss or OS crash.<br>" +
+            "None: leave it to the operating system<br>" +
+            "Every flush: after every flushed batch, expensive with the Every record flush policy<br>" +
+            "Periodic: at most once per sync interval",
+        position = 5,
+        section = writerSection
+    )
+    default SyncPolicy syncPolicy() {
+        return SyncPolicy.NONE;
+    }
+
+    @Range(min = 100)
+    @Units(Units.MILLISECONDS)
+    @ConfigItem(
+        keyName = "syncIntervalMs",
+        name = "Sync interval",
+        description = "How often flushed data is forced to the disk with the Periodic sync policy",
+        position = 6,
+        section = writerSection
+    )
+    default int syncIntervalMs() {
+        return 1000;
+    }
+
+    @Range(min = 64, max = 1 << 20)
+    @ConfigItem(
+        keyName = "queueCapacity",
+        name = "Queue capacity",
+        description = "How many records may wait for the writer thread before the overflow policy applies.<br>" +
+            "Takes effect the next time the plugin is started",
+        position = 7,
+        section = writerSection
+    )
+    default int queueCapacity() {
+        return 8192;
+    }
+
+    @ConfigItem(
+        keyName = "overflowPolicy",
+        name = "Overflow policy",
+        description = "What happens to new records while the queue is full. Lost records are counted in LOSS records.<br>" +
+            "Block briefly: wait up to the block timeout for room, then drop the record<br>" +
+            "Drop newest: drop the record<br>" +
+            "Drop low priority first: drop chat early and most other records before dialogue and dumps<br>" +
+            "Coalesce: merge var and item container changes until there's room, drop the rest",
+        position = 8,
+        section = writerSection
+    )
+    default OverflowPolicy overflowPolicy() {
+        return OverflowPolicy.DROP_NEWEST;
+    }
+
+    @Range(min = 1, max = 100)
+    @Units(Units.MILLISECONDS)
+    @ConfigItem(
+        keyName = "blockTimeoutMs",
+        name = "Block timeout",
+        description = "How long the client may be held up waiting for room in the queue with the Block briefly policy",
+        position = 9,
+        section = writerSection
+    )
+    default int blockTimeoutMs() {
+        return 5;
+    }
+
+    @ConfigItem(
+        keyName = "backend",
+        name = "File backend",
+        description = "How records are appended to the file. Applies from the next file on.<br>" +
+            "Buffered stream: regular buffered writes<br>" +
+            "Memory-mapped: records are copied into a preallocated, memory-mapped region of the file,<br>" +
+            "which is trimmed to its real length when the file is closed",
+        position = 10,
+        section = writerSection
+    )
+    default SegmentBackend backend() {
+        return SegmentBackend.STREAM;
+    }
+
+    @Range(min = 1, max = 1024)
+    @Units(" MiB")
+    @ConfigItem(
+        keyName = "preallocateMegabytes",
+        name = "Preallocate size",
+        description = "With the memory-mapped backend, how much the file is grown by at a time",
+        position = 11,
+        section = writerSection
+    )
+    default int preallocateMegabytes() {
+        return 8;
+    }
+
+    @Range(min = 0)
+    @Units(Units.SECONDS)
+    @ConfigItem(
+        keyName = "metricsIntervalSeconds",
+        name = "Metrics interval",
+        description = "Write the writer's metrics, as shown by ::actlog stats, as a METRICS record this often. 0 to disable",
+        position = 12,
+        section = writerSection
+    )
+    default int metricsIntervalSeconds() {
+        return 0;
+    }
+
+    @ConfigItem(
+        keyName = "tickFrames",
+        name = "Tick frames",
+        description = "Gather the records of a game tick and write them together, with the tick and timestamp written once.<br>" +
+            "JSON lines files get one line per tick, with the records in a records array",
+        position = 13,
+        section = writerSection
+    )
+    default boolean tickFrames() {
+        return false;
+    }
+
+    @Range(min = 0)
+    @Units(" MiB")
+    @ConfigItem(
+        keyName = "rotateMaxMegabytes",
+        name = "Max file size",
+        description = "Start a new file once the current one has this much data, before compression. 0 to disable",
+        position = 0,
+        section = rotationSection
+    )
+    default int rotateMaxMegabytes() {
+        return 0;
+    }
+
+    @Range(min = 0)
+    @Units(Units.MINUTES)
+    @ConfigItem(
+        keyName = "rotateIntervalMinutes",
+        name = "Max file age",
+        description = "Start a new file once the current one has been open for this long. 0 to disable",
+        position = 1,
+        section = rotationSection
+    )
+    default int rotateIntervalMinutes() {
+        return 0;
+    }
+
+    @Range(min = 0)
+    @Units(Units.TICKS)
+    @ConfigItem(
+        keyName = "rotateMaxTicks",
+        name = "Max file ticks",
+        description = "Start a new file once the current one has records from this many game ticks. 0 to disable",
+        position = 2,
+        section = rotationSection
+    )
+    default int rotateMaxTicks() {
+        return 0;
+    }
+
+    @ConfigItem(
+        keyName = "compression",
+        name = "Compression",
+        description = "Compress log files while they're being written. Applies from the next file on",
+        position = 3,
+        section = rotationSection
+    )
+    default Compression compression() {
+        return Compression.NONE;
+    }
+
+    @ConfigItem(
+        keyName = "writeIndex",
+        name = "Write index",
+        description = "Write a .idx file next to every log file once it's closed, to find records by tick or type without reading the whole file",
+        position = 4,
+        section = rotationSection
+    )
+    default boolean writeIndex() {
+        return true;
+    }
+
+    @ConfigItem(
+        keyName = "timestampPrecision",
+        name = "Timestamp precision",
+        description = "Precision of the ts of records. The clock is read once per game tick, so all records of a tick share a timestamp",
+        position = 0,
+        section = recordsSection
+    )
+    default TimestampPrecision timestampPrecision() {
+        return TimestampPrecision.SECONDS;
+    }
+
+    @ConfigItem(
+        keyName = "tickNanos",
+        name = "Tick offset",
+        description = "Record how many nanoseconds into the tick each record was written, as ns",
+        position = 1,
+        section = recordsSection
+    )
+    default boolean tickNanos() {
+        return false;
+    }
+
+    @ConfigItem(
+        keyName = "varRecords",
+        name = "Var changes",
+        description = "How varbit and varp changes are recorded.<br>" +
+            "Every change: a VARBIT_CHANGED or VARPLAYER_CHANGED record per change<br>" +
+            "Once per tick: one VAR_TICK record per tick with the first old and last new value of every var that changed",
+        position = 2,
+        section = recordsSection
+    )
+    default VarRecordMode varRecords() {
+        return VarRecordMode.EVERY_CHANGE;
+    }
+
+    @ConfigItem(
+        keyName = "varbitAllowList",
+        name = "Varbit allow list",
+        description = "Only record changes of these varbits, e.g. 4000-4100, 10060. Empty records every varbit",
+        position = 3,
+        section = recordsSection
+    )
+    default String varbitAllowList() {
+        return "";
+    }
+
+    @ConfigItem(
+        keyName = "varbitDenyList",
+        name = "Varbit deny list",
+        description = "Never record changes of these varbits, e.g. 1-3, 10060",
+        position = 4,
+        section = recordsSection
+    )
+    default String varbitDenyList() {
+        return "1-3";
+    }
+
+    @ConfigItem(
+        keyName = "varpAllowList",
+        name = "Varp allow list",
+        description = "Only record changes of these varps, e.g. 0-300, 3803. Empty records every varp",
+        position = 5,
+        section = recordsSection
+    )
+    default String varpAllowList() {
+        return "";
+    }
+
+    @ConfigItem(
+        keyName = "varpDenyList",
+        name = "Varp deny list",
+        description = "Never record changes of these varps, e.g. 1-3, 3803",
+        position = 6,
+        section = recordsSection
+    )
+    default String varpDenyList() {
+        return "1-3";
+    }
+
+    @ConfigItem(
+        keyName = "trackedContainers",
+        name = "Item containers",
+        description = "Item containers whose changes are recorded, as the slots that changed",
+        position = 7,
+        section = recordsSection
+    )
+    default Set<TrackedContainer> trackedContainers() {
+        return EnumSet.of(TrackedContainer.INVENTORY);
+    }
+
+    @Range(min = 0)
+    @ConfigItem(
+        keyName = "containerSnapshotInterval",
+        name = "Container snapshot interval",
+        description = "Also record the full contents of an item container after this many changes to it. 0 to only do so the first time it's seen",
+        position = 8,
+        section = recordsSection
+    )
+    default int containerSnapshotInterval() {
+        return 100;
+    }
+
+    @ConfigItem(
+        keyName = "chatTypes",
+        name = "Chat message types",
+        description = "Chat messages of these types are recorded as CHAT records",
+        position = 9,
+        section = recordsSection
+    )
+    default Set<ChatMessageType> chatTypes() {
+        return EnumSet.of(
+            ChatMessageType.ITEM_EXAMINE,
+            ChatMessageType.GAMEMESSAGE,
+            ChatMessageType.MESBOX,
+            ChatMessageType.DIALOG,
+            ChatMessageType.CONSOLE
+        );
+    }
+
+    @ConfigItem(
+        keyName = "incrementalDumps",
+        name = "Incremental dumps",
+        description = "Write only the ground items, objects and NPCs that were added, removed or changed since the previous dump,<br>" +
+            "as a DUMP_DELTA record. Widgets are always written in full",
+        position = 0,
+        section = dumpSection
+    )
+    default boolean incrementalDumps() {
+        return false;
+    }
+
+    @Range(min = 1)
+    @ConfigItem(
+        keyName = "dumpKeyframeInterval",
+        name = "Keyframe interval",
+        description = "With incremental dumps, write a full DUMP record again after this many DUMP_DELTA records",
+        position = 1,
+        section = dumpSection
+    )
+    default int dumpKeyframeInterval() {
+        return 10;
+    }
+
+    @Range(min = 0)
+    @Units(Units.TICKS)
+    @ConfigItem(
+        keyName = "autoDumpInterval",
+        name = "Automatic dump interval",
+        description = "Scan the ground items, objects and NPCs every this many ticks without a command, as DUMP_CHUNK records. 0 to disable",
+        position = 2,
+        section = dumpSection
+    )
+    default int autoDumpInterval() {
+        return 0;
+    }
+
+    @Range(min = 50, max = 10000)
+    @Units(" µs")
+    @ConfigItem(
+        keyName = "autoDumpBudgetMicros",
+        name = "Automatic dump budget",
+        description = "How long an automatic dump may scan per tick. A scan that takes longer is continued on the next tick",
+        position = 3,
+        section = dumpSection
+    )
+    default int autoDumpBudgetMicros() {
+        return 500;
+    }
+}
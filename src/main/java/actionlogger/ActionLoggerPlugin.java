@@ -6,16 +6,21 @@ package actionlogger;
 
 import actionlogger.trackers.*;
 import actionlogger.writers.JsonWriter;
+import actionlogger.writers.Metrics;
+import actionlogger.writers.WriterSettings;
 import com.google.gson.Gson;
+import com.google.inject.Provides;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.ChatMessageType;
 import net.runelite.api.Client;
 import net.runelite.api.events.CommandExecuted;
 import net.runelite.client.chat.ChatMessageManager;
 import net.runelite.client.chat.QueuedMessage;
+import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.EventBus;
 import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.events.ClientShutdown;
+import net.runelite.client.events.ConfigChanged;
 import net.runelite.client.game.ItemManager;
 import net.runelite.client.input.KeyManager;
 import net.runelite.client.plugins.Plugin;
@@ -23,48 +28,59 @@ import net.runelite.client.plugins.PluginDescriptor;
 
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 @Slf4j
 @PluginDescriptor(name = "Action Logger", description = "Log user & server actions to disk", tags = {"actionlogger"})
 public class ActionLoggerPlugin extends Plugin {
-    private static final String USAGE = "Usage: ::ActionLogger <COMMAND>. Available commands: restart, dump";
+    private static final String USAGE = "Usage: ::ActionLogger <COMMAND>. Available commands: restart, dump, vars, stats";
+    private static final long CLOSE_TIMEOUT_SECONDS = 5;
 
     private @Inject KeyManager keyManager;
     private @Inject EventBus eventBus;
     private @Inject Client client;
     private @Inject Gson gson;
-    private @Inject ScheduledExecutorService executor;
     private @Inject ChatMessageManager chatManager;
     private @Inject ItemManager itemManager;
+    private @Inject ActionLoggerConfig config;
 
     private DialogueTracker dialogueTracker = null;
     private VarTracker varTracker = null;
     private InventoryTracker inventoryTracker = null;
     private AnimationTracker animationTracker = null;
     private ChatTracker chatTracker = null;
+    private Dump dump = null;
     private JsonWriter writer = null;
 
     @Override
     protected void startUp() {
-        writer = new JsonWriter(gson, client, executor);
+        writer = new JsonWriter(gson, client, WriterSettings.from(config));
+        writer.start();
+        eventBus.register(writer);
 
         dialogueTracker = new DialogueTracker(writer, client);
         eventBus.register(dialogueTracker);
         keyManager.registerKeyListener(dialogueTracker);
 
-        varTracker = new VarTracker(writer);
+        varTracker = new VarTracker(writer, client, config);
         eventBus.register(varTracker);
 
-        inventoryTracker = new InventoryTracker(writer);
+        inventoryTracker = new InventoryTracker(writer, config);
         eventBus.register(inventoryTracker);
 
         animationTracker = new AnimationTracker(writer, client);
         eventBus.register(animationTracker);
 
-        chatTracker = new ChatTracker(writer);
+        chatTracker = new ChatTracker(writer, config);
         eventBus.register(chatTracker);
 
+        dump = new Dump(this, client, writer, itemManager, config);
+        eventBus.register(dump);
+
         log.debug("Started up Action Logger");
     }
 
@@ -86,12 +102,43 @@ public class ActionLoggerPlugin extends Plugin {
         eventBus.unregister(chatTracker);
         chatTracker = null;
 
-        writer.close();
+        eventBus.unregister(dump);
+        dump = null;
+
+        eventBus.unregister(writer);
+        try {
+            // if the plugin is turned right back on, the new writer shouldn't find the segment of this one still open
+            writer.closeAsync().get(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Timed out waiting for the writer to close, it will finish in the background");
+        } catch (ExecutionException e) {
+            log.warn("Failed to close writer", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
         writer = null;
 
         log.debug("Shut down Action Logger");
     }
 
+    @Provides
+    ActionLoggerConfig provideConfig(ConfigManager configManager) {
+        return configManager.getConfig(ActionLoggerConfig.class);
+    }
+
+    @Subscribe
+    public void onConfigChanged(ConfigChanged event) {
+        if (!ActionLoggerConfig.GROUP.equals(event.getGroup())) {
+            return;
+        }
+
+        writer.setSettings(WriterSettings.from(config));
+        varTracker.loadConfig();
+        inventoryTracker.loadConfig();
+        chatTracker.loadConfig();
+        dump.loadConfig();
+    }
+
     @Subscribe
     public void onCommandExecuted(CommandExecuted event) {
         var cmd = event.getCommand();
@@ -117,7 +164,18 @@ public class ActionLoggerPlugin extends Plugin {
                     break;
 
                 case "dump":
-                    Dump.handleDump(this, this.client, this.writer, this.itemManager, args);
+                    this.dump.handleDump(args);
+                    break;
+
+                case "vars":
+                    this.addChatMessage(String.format("Varbit changes suppressed: %d by the deny list, %d by the allow list",
+                        varTracker.getVarbitFilter().getDeniedCount(), varTracker.getVarbitFilter().getNotAllowedCount()));
+                    this.addChatMessage(String.format("Varp changes suppressed: %d by the deny list, %d by the allow list",
+                        varTracker.getVarpFilter().getDeniedCount(), varTracker.getVarpFilter().getNotAllowedCount()));
+                    break;
+
+                case "stats":
+                    this.printStats();
                     break;
 
                 default:
@@ -131,12 +189,43 @@ public class ActionLoggerPlugin extends Plugin {
     @Subscribe
     protected void onClientShutdown(ClientShutdown event) {
         try {
-            writer.close();
+            // let the client wait for the writer thread to drain its queue before exiting
+            event.waitFor(writer.closeAsync());
         } catch (Exception e) {
             log.warn("Failed to close writer", e);
         }
     }
 
+    private void printStats() {
+        var stats = this.writer.getMetrics().snapshot();
+        var seconds = Math.max(1, stats.getUptimeMs()) / 1000.0;
+        var total = stats.getRecords().values().stream().mapToLong(Long::longValue).sum();
+
+        this.addChatMessage(String.format("Uptime %.0fs: %d records (%.1f/s), %d flushes, %d KiB written, current file at %d KiB",
+            seconds, total, total / seconds, stats.getFlushes(), stats.getBytes() / 1024, stats.getSegmentBytes() / 1024));
+        this.addChatMessage("Records/s: " + formatRates(stats.getRecords(), seconds));
+        this.addChatMessage("Events/s: " + formatRates(stats.getEvents(), seconds));
+        this.addChatMessage(String.format("Queue depth %s, queue wait %s, encode %s, flush latency %s",
+            formatHistogram(stats.getQueueDepth(), 1, ""),
+            formatHistogram(stats.getQueueWaitNanos(), 1000, "µs"),
+            formatHistogram(stats.getEncodeNanos(), 1000, "µs"),
+            formatHistogram(stats.getFlushLatencyNanos(), 1_000_000, "ms")));
+    }
+
+    private static String formatRates(Map<String, Long> counts, double seconds) {
+        if (counts.isEmpty()) {
+            return "none";
+        }
+        return counts.entrySet().stream()
+            .map(entry -> String.format("%s %.1f", entry.getKey(), entry.getValue() / seconds))
+            .collect(Collectors.joining(", "));
+    }
+
+    private static String formatHistogram(Metrics.HistogramSummary summary, long divisor, String unit) {
+        return String.format("p50/p90/p99/max %d/%d/%d/%d%s",
+            summary.getP50() / divisor, summary.getP90() / divisor, summary.getP99() / divisor, summary.getMax() / divisor, unit);
+    }
+
     void addChatMessage(@Nonnull String message) {
         String formatted = String.format("[ActionLogger] %s", message);
 
@@ -6,40 +6,212 @@
 package actionlogger;
 
 import actionlogger.writers.JsonWriter;
-import lombok.Data;
+import actionlogger.writers.RecordPriority;
+import actionlogger.writers.RecordTypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
 import lombok.Value;
 import net.runelite.api.Client;
-import net.runelite.api.widgets.Widget;
+import net.runelite.api.ItemComposition;
+import net.runelite.api.Tile;
+import net.runelite.api.WorldView;
+import net.runelite.api.events.GameTick;
+import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.game.ItemManager;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.awt.Rectangle;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the scene around the player as DUMP records.
+ * <p>
+ * The client thread only copies what it needs into reused {@link EntryTable}s and a {@link WidgetSnapshot}, and hands exact-size
+ * copies of them to the writer. Building the JSON, and comparing with the previous dump, happens on the writer thread.
+ * <p>
+ * With incremental dumps enabled, the ground items, objects and NPCs of the previous dump are remembered, and the next dump
+ * is a DUMP_DELTA record with only what was added, removed or changed since then. A full DUMP record is written as a keyframe
+ * every few dumps, and whenever the previous dump can't be built on (the scene was reloaded or other things were dumped).
+ * <p>
+ * With automatic dumps enabled, the ground items, objects and NPCs are also scanned every few ticks without a command. Such a
+ * scan is spread over as many ticks as it takes to stay within a time budget per tick, and each tick's part of it is written as
+ * a DUMP_CHUNK record right away.
+ * <p>
+ * Only accessed from the client thread, except for {@link #loadConfig()}.
+ */
 public class Dump {
-    public static void handleDump(@Nonnull ActionLoggerPlugin plugin, @Nonnull Client client, @Nonnull JsonWriter writer, @Nonnull ItemManager itemManager, @Nonnull String[] args) {
+    private static final String DUMP_TYPE = "DUMP";
+    private static final String DELTA_TYPE = "DUMP_DELTA";
+    private static final String CHUNK_TYPE = "DUMP_CHUNK";
+    private static final String USAGE = "Usage: ::ActionLogger dump [grounditems] [objects] [npcs] [widgets] [<widget group id>...] [visible] [keyframe]";
+
+    private final ActionLoggerPlugin plugin;
+    private final Client client;
+    private final JsonWriter writer;
+    private final ItemManager itemManager;
+    private final ActionLoggerConfig config;
+
+    /**
+     * Reused between dumps
+     */
+    private final SceneEntries entries = new SceneEntries();
+    private final WidgetSnapshot widgets = new WidgetSnapshot();
+    /**
+     * Compositions of the ground items seen in the current dump, or the current automatic scan.
+     * Stacks of the same item are common, and the item manager's cache boxes the id and synchronizes on every lookup.
+     */
+    private final Map<Integer, ItemComposition> itemCompositions = new HashMap<>();
+
+    /**
+     * What the previous dump handed to the writer. Never modified after that, so the writer thread may still be reading it
+     */
+    private @Nullable SceneEntries previous = null;
+    private @Nullable Set<String> previousDumps = null;
+    private @Nullable SceneData previousScene = null;
+    private int previousPlane = 0;
+    private int previousTick = 0;
+    private int deltasSinceKeyframe = 0;
+
+    private volatile int autoDumpInterval;
+    private volatile long autoDumpBudgetNanos;
+
+    /**
+     * Progress of the current automatic scan. It goes through the tiles plane by plane, a row of tiles at a time
+     */
+    private boolean scanning = false;
+    private int scanTick = 0;
+    private @Nullable SceneData scanScene = null;
+    private int scanZ = 0;
+    private int scanX = 0;
+
+    public Dump(@Nonnull ActionLoggerPlugin plugin, @Nonnull Client client, @Nonnull JsonWriter writer, @Nonnull ItemManager itemManager, @Nonnull ActionLoggerConfig config) {
+        this.plugin = plugin;
+        this.client = client;
+        this.writer = writer;
+        this.itemManager = itemManager;
+        this.config = config;
+        this.loadConfig();
+    }
+
+    /**
+     * May be called from any thread
+     */
+    public void loadConfig() {
+        this.autoDumpInterval = config.autoDumpInterval();
+        this.autoDumpBudgetNanos = TimeUnit.MICROSECONDS.toNanos(config.autoDumpBudgetMicros());
+    }
+
+    @Subscribe
+    public void onGameTick(GameTick event) {
+        var interval = this.autoDumpInterval;
+        if (interval <= 0) {
+            this.scanning = false;
+            return;
+        }
+
+        var tick = client.getTickCount();
+        if (!this.scanning && tick - this.scanTick < interval && this.scanScene != null) {
+            return;
+        }
+
+        var worldView = client.getTopLevelWorldView();
+        var scene = worldView != null ? worldView.getScene() : null;
+        if (scene == null) {
+            this.scanning = false;
+            return;
+        }
+
+        var sceneData = new SceneData(scene.getBaseX(), scene.getBaseY(), scene.isInstance());
+        if (!this.scanning || !sceneData.equals(this.scanScene)) {
+            // the coordinates of the chunks so far don't apply to a reloaded scene, so it starts over
+            this.scanning = true;
+            this.scanTick = tick;
+            this.scanScene = sceneData;
+            this.scanZ = 0;
+            this.scanX = 0;
+            this.itemCompositions.clear();
+        }
+
+        var plane = worldView.getPlane();
+        var tiles = scene.getTiles();
+        var start = System.nanoTime();
+        var budget = this.autoDumpBudgetNanos;
+        do {
+            var z = this.scanZ;
+            var fromX = this.scanX;
+            var entries = this.entries;
+            entries.clear();
+
+            // at least one row per tick, so the scan always finishes
+            var x = fromX;
+            do {
+                this.captureTiles(entries, tiles[z], z, x, x + 1, true, true);
+                x++;
+            } while (x < tiles[z].length && System.nanoTime() - start < budget);
+
+            var firstChunk = z == 0 && fromX == 0;
+            if (firstChunk) {
+                this.captureNpcs(entries, worldView, plane);
+            }
+            entries.sort();
+
+            this.scanX = x;
+            if (x >= tiles[z].length) {
+                this.scanZ++;
+                this.scanX = 0;
+            }
+            var last = this.scanZ >= tiles.length;
+
+            var chunkData = new ChunkData(this.scanTick, sceneData, plane, z, fromX, x - 1, last, firstChunk, entries.copy());
+            writer.write(CHUNK_TYPE, chunkData);
+
+            if (last) {
+                this.scanning = false;
+                break;
+            }
+        } while (System.nanoTime() - start < budget);
+    }
+
+    public void handleDump(@Nonnull String[] args) {
         assert (client.isClientThread());
 
         var dumps = new HashSet<String>();
-        // default dump everything
-        dumps.add("grounditems");
-        dumps.add("objects");
-        dumps.add("npcs");
-        dumps.add("widgets");
-
-        if (args.length > 1) {
-            dumps.clear();
-            for (var i = 1; i < args.length; i++) {
-                dumps.add(args[i].toLowerCase());
+        var widgetGroups = new ArrayList<Integer>();
+        var forceKeyframe = false;
+        var skipHidden = false;
+        for (var i = 1; i < args.length; i++) {
+            var arg = args[i].toLowerCase();
+            if ("keyframe".equals(arg)) {
+                forceKeyframe = true;
+            } else if ("visible".equals(arg)) {
+                skipHidden = true;
+            } else if (!arg.isEmpty() && arg.chars().allMatch(Character::isDigit)) {
+                try {
+                    widgetGroups.add(Integer.parseInt(arg));
+                } catch (NumberFormatException e) {
+                    // too many digits for an int
+                    plugin.addChatMessage(USAGE);
+                    return;
+                }
+                dumps.add("widgets");
+            } else {
+                dumps.add(arg);
             }
         }
 
+        if (dumps.isEmpty()) {
+            // default dump everything
+            dumps.add("grounditems");
+            dumps.add("objects");
+            dumps.add("npcs");
+            dumps.add("widgets");
+        }
+
         var worldView = client.getTopLevelWorldView();
         if (worldView == null) {
             plugin.addChatMessage("Dump failed: worldView is null");
@@ -53,175 +225,455 @@ public class Dump {
         }
 
         var sceneData = new SceneData(scene.getBaseX(), scene.getBaseY(), scene.isInstance());
-        List<GroundItemData> groundItemData = new ArrayList<>();
-        List<ObjectData> decorativeObjectData = new ArrayList<>();
-        List<ObjectData> wallObjectData = new ArrayList<>();
-        List<ObjectData> gameObjectData = new ArrayList<>();
-        List<ObjectData> groundObjectData = new ArrayList<>();
-        List<NPCData> npcData = new ArrayList<>();
+        var plane = worldView.getPlane();
+        var dumpGroundItems = dumps.contains("grounditems");
+        var dumpObjects = dumps.contains("objects");
+        var dumpNpcs = dumps.contains("npcs");
+        var dumpWidgets = dumps.contains("widgets");
+
+        var entries = this.entries;
+        entries.clear();
+        this.itemCompositions.clear();
         var tiles = scene.getTiles();
-        for (var z = 0; z < tiles.length; z++) {
-            for (var x = 0; x < tiles[z].length; x++) {
-                for (var y = 0; y < tiles[z][x].length; y++) {
-                    var tile = tiles[z][x][y];
+        if (dumpGroundItems || dumpObjects) {
+            for (var z = 0; z < tiles.length; z++) {
+                this.captureTiles(entries, tiles[z], z, 0, tiles[z].length, dumpGroundItems, dumpObjects);
+            }
+        }
 
-                    if (tile == null) {
-                        continue;
-                    }
+        if (dumpNpcs) {
+            this.captureNpcs(entries, worldView, plane);
+        }
+        entries.sort();
+
+        WidgetSnapshot widgets = null;
+        if (dumpWidgets) {
+            this.widgets.clear();
+            if (widgetGroups.isEmpty()) {
+                for (var widgetRoot : client.getWidgetRoots()) {
+                    this.widgets.addRoot(widgetRoot, skipHidden);
+                }
+            } else {
+                for (int group : widgetGroups) {
+                    this.addWidgetGroup(group, skipHidden);
+                }
+            }
+            widgets = this.widgets.copy();
+        }
+
+        var tick = client.getTickCount();
+        var keyframe = forceKeyframe
+            || this.previous == null
+            || !config.incrementalDumps()
+            || !dumps.equals(this.previousDumps)
+            || !sceneData.equals(this.previousScene)
+            || plane != this.previousPlane
+            || this.deltasSinceKeyframe >= config.dumpKeyframeInterval();
+
+        var snapshot = entries.copy();
+        if (keyframe) {
+            var dumpData = new DumpData(sceneData, plane, dumpGroundItems, dumpObjects, dumpNpcs, snapshot, widgets);
+            writer.write(DUMP_TYPE, dumpData, RecordPriority.HIGH);
+            this.deltasSinceKeyframe = 0;
+        } else {
+            var deltaData = new DeltaData(this.previousTick, sceneData, plane, dumpGroundItems, dumpObjects, dumpNpcs, this.previous, snapshot, widgets);
+            writer.write(DELTA_TYPE, deltaData, RecordPriority.HIGH);
+            this.deltasSinceKeyframe++;
+        }
+
+        this.previous = snapshot;
+        this.previousDumps = dumps;
+        this.previousScene = sceneData;
+        this.previousPlane = plane;
+        this.previousTick = tick;
+    }
+
+    /**
+     * Adds the widgets of an interface group whose parent is outside of it, with everything below them
+     */
+    private void addWidgetGroup(int group, boolean skipHidden) {
+        for (var child = 0; ; child++) {
+            var widget = client.getWidget(group, child);
+            if (widget == null) {
+                break;
+            }
 
-                    var groundItems = tile.getGroundItems();
-                    if (groundItems != null) {
-                        for (var groundItem : groundItems) {
-                            var itemComposition = itemManager.getItemComposition(groundItem.getId());
-                            groundItemData.add(new GroundItemData(x, y, z, itemComposition.getId(), itemComposition.getName(), groundItem.getQuantity()));
+            if (widget.getParentId() >>> 16 != group) {
+                this.widgets.addRoot(widget, skipHidden);
+            }
+        }
+    }
+
+    /**
+     * Adds the entries of the rows of tiles from fromX up to toX of one plane
+     */
+    private void captureTiles(SceneEntries entries, Tile[][] tiles, int z, int fromX, int toX, boolean groundItems, boolean objects) {
+        for (var x = fromX; x < toX; x++) {
+            for (var y = 0; y < tiles[x].length; y++) {
+                var tile = tiles[x][y];
+
+                if (tile == null) {
+                    continue;
+                }
+
+                var tileKey = tileKey(x, y, z);
+
+                if (groundItems) {
+                    var tileItems = tile.getGroundItems();
+                    if (tileItems != null) {
+                        for (var groundItem : tileItems) {
+                            // compositions can only be looked up on the client thread
+                            var itemComposition = this.itemCompositions.computeIfAbsent(groundItem.getId(), itemManager::getItemComposition);
+                            entries.groundItems.add(entryKey(tileKey, itemComposition.getId()), groundItem.getQuantity(), itemComposition.getName());
                         }
                     }
+                }
 
-                    var decorativeObjects = tile.getDecorativeObject();
-                    if (decorativeObjects != null) {
-                        decorativeObjectData.add(new ObjectData(x, y, z, decorativeObjects.getId()));
-                    }
+                if (!objects) {
+                    continue;
+                }
 
-                    var groundObject = tile.getGroundObject();
-                    if (groundObject != null) {
-                        groundObjectData.add(new ObjectData(x, y, z, groundObject.getId()));
-                    }
+                var decorativeObjects = tile.getDecorativeObject();
+                if (decorativeObjects != null) {
+                    entries.decorativeObjects.add(entryKey(tileKey, decorativeObjects.getId()), 0, null);
+                }
 
-                    var wallObject = tile.getWallObject();
-                    if (wallObject != null) {
-                        wallObjectData.add(new ObjectData(x, y, z, wallObject.getId()));
-                    }
+                var groundObject = tile.getGroundObject();
+                if (groundObject != null) {
+                    entries.groundObjects.add(entryKey(tileKey, groundObject.getId()), 0, null);
+                }
 
-                    var gameObjects = tile.getGameObjects();
-                    if (gameObjects != null) {
-                        for (var gameObject : gameObjects) {
-                            if (gameObject != null) {
-                                gameObjectData.add(new ObjectData(x, y, z, gameObject.getId()));
-                            }
+                var wallObject = tile.getWallObject();
+                if (wallObject != null) {
+                    entries.wallObjects.add(entryKey(tileKey, wallObject.getId()), 0, null);
+                }
+
+                var gameObjects = tile.getGameObjects();
+                if (gameObjects != null) {
+                    for (var gameObject : gameObjects) {
+                        if (gameObject != null) {
+                            entries.gameObjects.add(entryKey(tileKey, gameObject.getId()), 0, null);
                         }
                     }
                 }
             }
         }
+    }
 
+    private void captureNpcs(SceneEntries entries, WorldView worldView, int plane) {
         for (var npc : worldView.npcs()) {
             var localLocation = npc.getLocalLocation();
-            npcData.add(new NPCData(localLocation.getSceneX(), localLocation.getSceneY(), worldView.getPlane(), npc.getId(), npc.getName()));
+            var tileKey = tileKey(localLocation.getSceneX(), localLocation.getSceneY(), plane);
+            entries.npcs.add(npc.getIndex(), entryKey(tileKey, npc.getId()), npc.getName());
         }
+    }
+
+    private static int tileKey(int x, int y, int z) {
+        return z << 16 | (x & 0xFF) << 8 | (y & 0xFF);
+    }
+
+    /**
+     * Packs a tile and an id so entries sort by tile in scan order, then by id
+     */
+    private static long entryKey(int tileKey, int id) {
+        return (long) tileKey << 32 | (id & 0xFFFFFFFFL);
+    }
+
+    private static void writeTile(com.google.gson.stream.JsonWriter out, long entryKey) throws IOException {
+        out.name("x").value((int) (entryKey >>> 40) & 0xFF);
+        out.name("y").value((int) (entryKey >>> 32) & 0xFF);
+        out.name("z").value((int) (entryKey >>> 48));
+    }
+
+    private static void writeGroundItem(com.google.gson.stream.JsonWriter out, EntryTable table, int i) throws IOException {
+        var key = table.keys[i];
+        out.beginObject();
+        writeTile(out, key);
+        out.name("id").value((int) key);
+        out.name("name").value(table.names[i]);
+        out.name("quantity").value((int) table.values[i]);
+        out.endObject();
+    }
+
+    private static void writeObject(com.google.gson.stream.JsonWriter out, EntryTable table, int i) throws IOException {
+        var key = table.keys[i];
+        out.beginObject();
+        writeTile(out, key);
+        out.name("id").value((int) key);
+        out.endObject();
+    }
+
+    private static void writeNpc(com.google.gson.stream.JsonWriter out, EntryTable table, int i) throws IOException {
+        var value = table.values[i];
+        out.beginObject();
+        out.name("index").value(table.keys[i]);
+        writeTile(out, value);
+        out.name("id").value((int) value);
+        out.name("name").value(table.names[i]);
+        out.endObject();
+    }
 
-        var widgets = new ArrayList<WidgetData>();
+    private static void writeEntries(com.google.gson.stream.JsonWriter out, String name, boolean dumped, EntryTable table, EntryWriter entryWriter) throws IOException {
+        out.name(name);
+        if (!dumped) {
+            out.nullValue();
+            return;
+        }
 
-        for (var widgetRoot : client.getWidgetRoots()) {
-            var widgetData = WidgetData.from(widgetRoot);
-            widgets.add(widgetData);
+        out.beginArray();
+        for (var i = 0; i < table.size; i++) {
+            entryWriter.write(out, table, i);
         }
+        out.endArray();
+    }
 
-        var dumpData = new DumpData(
-            sceneData,
-            worldView.getPlane(),
-            dumps.contains("grounditems") ? groundItemData : null,
-            dumps.contains("objects") ? decorativeObjectData : null,
-            dumps.contains("objects") ? wallObjectData : null,
-            dumps.contains("objects") ? gameObjectData : null,
-            dumps.contains("objects") ? groundObjectData : null,
-            dumps.contains("npcs") ? npcData : null,
-            dumps.contains("widgets") ? widgets : null
-        );
+    private static void writeChanges(com.google.gson.stream.JsonWriter out, String name, boolean dumped, EntryTable previous, EntryTable current, EntryWriter entryWriter) throws IOException {
+        out.name(name);
+        if (!dumped) {
+            out.nullValue();
+            return;
+        }
 
-        writer.write("DUMP", dumpData);
+        out.beginObject();
+        writeChanges(out, "added", Change.ADDED, previous, current, entryWriter);
+        writeChanges(out, "removed", Change.REMOVED, previous, current, entryWriter);
+        writeChanges(out, "changed", Change.CHANGED, previous, current, entryWriter);
+        out.endObject();
     }
 
-    @Data
-    private static class SceneData {
-        private final int baseX;
-        private final int baseY;
+    /**
+     * Merges the sorted entries of both dumps in a single pass and writes the ones with the given change, if there are any.
+     * Entries with the same key and a different value are changed, e.g. a ground item stack whose quantity changed or an
+     * NPC that moved.
+     */
+    private static void writeChanges(com.google.gson.stream.JsonWriter out, String name, Change change, EntryTable previous, EntryTable current, EntryWriter entryWriter) throws IOException {
+        var started = false;
+        int i = 0, j = 0;
+        while (i < previous.size || j < current.size) {
+            EntryTable table = null;
+            int index = 0;
+            if (j >= current.size || (i < previous.size && previous.keys[i] < current.keys[j])) {
+                if (change == Change.REMOVED) {
+                    table = previous;
+                    index = i;
+                }
+                i++;
+            } else if (i >= previous.size || current.keys[j] < previous.keys[i]) {
+                if (change == Change.ADDED) {
+                    table = current;
+                    index = j;
+                }
+                j++;
+            } else {
+                if (change == Change.CHANGED && previous.values[i] != current.values[j]) {
+                    table = current;
+                    index = j;
+                }
+                i++;
+                j++;
+            }
+
+            if (table != null) {
+                if (!started) {
+                    out.name(name).beginArray();
+                    started = true;
+                }
+                entryWriter.write(out, table, index);
+            }
+        }
 
-        private final boolean isInstance;
+        if (started) {
+            out.endArray();
+        }
     }
 
-    @Data
-    private static class GroundItemData {
-        private final int x;
-        private final int y;
-        private final int z;
+    private enum Change {
+        ADDED,
+        REMOVED,
+        CHANGED,
+    }
 
-        private final int id;
-        private final String name;
-        private final int quantity;
+    @FunctionalInterface
+    private interface EntryWriter {
+        void write(com.google.gson.stream.JsonWriter out, EntryTable table, int index) throws IOException;
     }
 
-    @Data
-    private static class ObjectData {
-        private final int x;
-        private final int y;
-        private final int z;
+    private static class SceneEntries {
+        final EntryTable groundItems;
+        final EntryTable decorativeObjects;
+        final EntryTable wallObjects;
+        final EntryTable gameObjects;
+        final EntryTable groundObjects;
+        /** Keyed by NPC index, with the tile and id as the value */
+        final EntryTable npcs;
+
+        SceneEntries() {
+            this(new EntryTable(), new EntryTable(), new EntryTable(), new EntryTable(), new EntryTable(), new EntryTable());
+        }
+
+        private SceneEntries(EntryTable groundItems, EntryTable decorativeObjects, EntryTable wallObjects, EntryTable gameObjects, EntryTable groundObjects, EntryTable npcs) {
+            this.groundItems = groundItems;
+            this.decorativeObjects = decorativeObjects;
+            this.wallObjects = wallObjects;
+            this.gameObjects = gameObjects;
+            this.groundObjects = groundObjects;
+            this.npcs = npcs;
+        }
+
+        void clear() {
+            groundItems.clear();
+            decorativeObjects.clear();
+            wallObjects.clear();
+            gameObjects.clear();
+            groundObjects.clear();
+            npcs.clear();
+        }
 
-        private final int id;
+        void sort() {
+            groundItems.sort();
+            decorativeObjects.sort();
+            wallObjects.sort();
+            gameObjects.sort();
+            groundObjects.sort();
+            npcs.sort();
+        }
+
+        SceneEntries copy() {
+            return new SceneEntries(groundItems.copy(), decorativeObjects.copy(), wallObjects.copy(), gameObjects.copy(), groundObjects.copy(), npcs.copy());
+        }
     }
 
-    @Data
-    private static class NPCData {
-        private final int x;
-        private final int y;
-        private final int z;
+    @Value
+    private static class SceneData {
+        int baseX;
+        int baseY;
 
-        private final int id;
-        private final String name;
+        boolean isInstance;
     }
 
     @Value
-    private static class WidgetData {
-        int id;
-        int type;
-        int contentType;
-        int parentId;
-        String text;
-        String name;
-        Integer itemID;
-        Integer modelID;
-        Integer spriteID;
-        Rectangle bounds;
-        boolean hidden;
-        List<WidgetData> dynamicChildren;
-        List<WidgetData> staticChildren;
-        List<WidgetData> nestedChildren;
-
-        public static WidgetData from(@Nonnull Widget w) {
-            var bounds = w.getBounds();
-            boolean emptyBounds = bounds.getWidth() == 0 && bounds.getHeight() == 0 && bounds.getX() == -1 && bounds.getY() == -1;
-            var dynamicChildren = Arrays.stream(w.getDynamicChildren()).filter(Objects::nonNull).map(WidgetData::from).collect(Collectors.toList());
-            var staticChildren = Arrays.stream(w.getStaticChildren()).filter(Objects::nonNull).map(WidgetData::from).collect(Collectors.toList());
-            var nestedChildren = Arrays.stream(w.getNestedChildren()).filter(Objects::nonNull).map(WidgetData::from).collect(Collectors.toList());
-            return new WidgetData(
-                w.getId(),
-                w.getType(),
-                w.getContentType(),
-                w.getParentId(),
-                w.getText() == null || w.getText().isEmpty() ? null : w.getText(),
-                w.getName() == null || w.getName().isEmpty() ? null : w.getName(),
-                w.getItemId() >= 0 ? w.getItemId() : null,
-                w.getModelId() >= 0 ? w.getModelId() : null,
-                w.getSpriteId() >= 0 ? w.getSpriteId() : null,
-                emptyBounds ? null : w.getBounds(),
-                w.isHidden(),
-                dynamicChildren.isEmpty() ? null : dynamicChildren,
-                staticChildren.isEmpty() ? null : staticChildren,
-                nestedChildren.isEmpty() ? null : nestedChildren
-            );
-        }
-    }
-
-    @Data
+    @JsonAdapter(DumpData.Adapter.class)
     private static class DumpData {
-        private final SceneData scene;
-        private final int worldViewPlane;
-
-        private final @Nullable List<GroundItemData> groundItems;
-        private final @Nullable List<ObjectData> decorativeObjects;
-        private final @Nullable List<ObjectData> wallObjects;
-        private final @Nullable List<ObjectData> gameObjects;
-        private final @Nullable List<ObjectData> groundObjects;
-        private final @Nullable List<NPCData> npcs;
-        private final @Nullable List<WidgetData> widgets;
+        SceneData scene;
+        int worldViewPlane;
+
+        boolean groundItems;
+        boolean objects;
+        boolean npcs;
+        SceneEntries entries;
+        @Nullable WidgetSnapshot widgets;
+
+        private static class Adapter extends RecordTypeAdapter<DumpData> {
+            @Override
+            public void write(com.google.gson.stream.JsonWriter out, DumpData value) throws IOException {
+                var entries = value.entries;
+                out.beginObject();
+                writeScene(out, value.scene, value.worldViewPlane);
+                writeEntries(out, "groundItems", value.groundItems, entries.groundItems, Dump::writeGroundItem);
+                writeEntries(out, "decorativeObjects", value.objects, entries.decorativeObjects, Dump::writeObject);
+                writeEntries(out, "wallObjects", value.objects, entries.wallObjects, Dump::writeObject);
+                writeEntries(out, "gameObjects", value.objects, entries.gameObjects, Dump::writeObject);
+                writeEntries(out, "groundObjects", value.objects, entries.groundObjects, Dump::writeObject);
+                writeEntries(out, "npcs", value.npcs, entries.npcs, Dump::writeNpc);
+                writeWidgets(out, value.widgets);
+                out.endObject();
+            }
+        }
+    }
+
+    @Value
+    @JsonAdapter(DeltaData.Adapter.class)
+    private static class DeltaData {
+        /** Tick of the dump this builds on */
+        int since;
+
+        SceneData scene;
+        int worldViewPlane;
+
+        boolean groundItems;
+        boolean objects;
+        boolean npcs;
+        SceneEntries previous;
+        SceneEntries entries;
+        @Nullable WidgetSnapshot widgets;
+
+        private static class Adapter extends RecordTypeAdapter<DeltaData> {
+            @Override
+            public void write(com.google.gson.stream.JsonWriter out, DeltaData value) throws IOException {
+                var previous = value.previous;
+                var entries = value.entries;
+                out.beginObject();
+                out.name("since").value(value.since);
+                writeScene(out, value.scene, value.worldViewPlane);
+                writeChanges(out, "groundItems", value.groundItems, previous.groundItems, entries.groundItems, Dump::writeGroundItem);
+                writeChanges(out, "decorativeObjects", value.objects, previous.decorativeObjects, entries.decorativeObjects, Dump::writeObject);
+                writeChanges(out, "wallObjects", value.objects, previous.wallObjects, entries.wallObjects, Dump::writeObject);
+                writeChanges(out, "gameObjects", value.objects, previous.gameObjects, entries.gameObjects, Dump::writeObject);
+                writeChanges(out, "groundObjects", value.objects, previous.groundObjects, entries.groundObjects, Dump::writeObject);
+                writeChanges(out, "npcs", value.npcs, previous.npcs, entries.npcs, Dump::writeNpc);
+                writeWidgets(out, value.widgets);
+                out.endObject();
+            }
+        }
+    }
+
+    @Value
+    @JsonAdapter(ChunkData.Adapter.class)
+    private static class ChunkData {
+        /** Tick the scan started on. Every chunk of a scan has the same one */
+        int scan;
+
+        SceneData scene;
+        int worldViewPlane;
+
+        /** Plane and range of rows of tiles of this chunk */
+        int z;
+        int fromX;
+        int toX;
+        /** Whether this is the last chunk of the scan */
+        boolean last;
+
+        /** NPCs are only part of the first chunk of a scan */
+        boolean npcs;
+        SceneEntries entries;
+
+        private static class Adapter extends RecordTypeAdapter<ChunkData> {
+            @Override
+            public void write(com.google.gson.stream.JsonWriter out, ChunkData value) throws IOException {
+                var entries = value.entries;
+                out.beginObject();
+                out.name("scan").value(value.scan);
+                writeScene(out, value.scene, value.worldViewPlane);
+                out.name("z").value(value.z);
+                out.name("fromX").value(value.fromX);
+                out.name("toX").value(value.toX);
+                out.name("last").value(value.last);
+                writeEntries(out, "groundItems", true, entries.groundItems, Dump::writeGroundItem);
+                writeEntries(out, "decorativeObjects", true, entries.decorativeObjects, Dump::writeObject);
+                writeEntries(out, "wallObjects", true, entries.wallObjects, Dump::writeObject);
+                writeEntries(out, "gameObjects", true, entries.gameObjects, Dump::writeObject);
+                writeEntries(out, "groundObjects", true, entries.groundObjects, Dump::writeObject);
+                writeEntries(out, "npcs", value.npcs, entries.npcs, Dump::writeNpc);
+                out.endObject();
+            }
+        }
+    }
+
+    private static void writeScene(com.google.gson.stream.JsonWriter out, SceneData scene, int worldViewPlane) throws IOException {
+        out.name("scene").beginObject();
+        out.name("baseX").value(scene.baseX);
+        out.name("baseY").value(scene.baseY);
+        out.name("isInstance").value(scene.isInstance);
+        out.endObject();
+        out.name("worldViewPlane").value(worldViewPlane);
+    }
+
+    private static void writeWidgets(com.google.gson.stream.JsonWriter out, @Nullable WidgetSnapshot widgets) throws IOException {
+        out.name("widgets");
+        if (widgets == null) {
+            out.nullValue();
+        } else {
+            widgets.write(out);
+        }
     }
 }
@@ -0,0 +1,79 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Entries of one kind of a scene dump as parallel arrays: a key that identifies the entry, a value that may change between
+ * dumps, and a name.
+ * <p>
+ * {@link Dump} captures into one reused table on the client thread and hands an exact-size {@link #copy()} to the writer thread.
+ */
+final class EntryTable {
+    long[] keys;
+    long[] values;
+    String[] names;
+    int size = 0;
+
+    EntryTable() {
+        this(64);
+    }
+
+    private EntryTable(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+        this.names = new String[capacity];
+    }
+
+    void clear() {
+        // names are kept until they're overwritten, they're only strings the client holds on to anyway
+        this.size = 0;
+    }
+
+    void add(long key, long value, @Nullable String name) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+            names = Arrays.copyOf(names, size * 2);
+        }
+        keys[size] = key;
+        values[size] = value;
+        names[size] = name;
+        size++;
+    }
+
+    /**
+     * Sorts by key, then value. Tile entries are added in scan order and only need sorting within a tile, and there are
+     * few NPCs, so an insertion sort is close to linear here.
+     */
+    void sort() {
+        for (var i = 1; i < size; i++) {
+            var key = keys[i];
+            var value = values[i];
+            var name = names[i];
+            var j = i - 1;
+            while (j >= 0 && (keys[j] > key || (keys[j] == key && values[j] > value))) {
+                keys[j + 1] = keys[j];
+                values[j + 1] = values[j];
+                names[j + 1] = names[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            values[j + 1] = value;
+            names[j + 1] = name;
+        }
+    }
+
+    EntryTable copy() {
+        var copy = new EntryTable(0);
+        copy.keys = Arrays.copyOf(keys, size);
+        copy.values = Arrays.copyOf(values, size);
+        copy.names = Arrays.copyOf(names, size);
+        copy.size = size;
+        return copy;
+    }
+}
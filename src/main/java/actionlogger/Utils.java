@@ -1,15 +0,0 @@
-// SPDX-FileCopyrightText: 2024 pajlada <rasmus.karlsson@pajlada.com>
-//
-// SPDX-License-Identifier: BSD-2-Clause
-
-package actionlogger;
-
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-
-public class Utils {
-
-    public static String getTimestamp() {
-        return Instant.now().truncatedTo(ChronoUnit.SECONDS).toString();
-    }
-}
@@ -0,0 +1,223 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger;
+
+import com.google.gson.stream.JsonWriter;
+import net.runelite.api.widgets.Widget;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The widget trees of a dump as flat arrays, one row per widget in pre-order: a widget is followed by the subtrees of its
+ * dynamic, static and nested children, in that order.
+ * <p>
+ * {@link Dump} captures into one reused snapshot on the client thread, copying only the primitive fields and string references
+ * of each widget without recursion, and hands an exact-size {@link #copy()} to the writer thread, where it's written as nested JSON.
+ */
+final class WidgetSnapshot {
+    private static final int ID = 0;
+    private static final int TYPE = 1;
+    private static final int CONTENT_TYPE = 2;
+    private static final int PARENT_ID = 3;
+    private static final int ITEM_ID = 4;
+    private static final int MODEL_ID = 5;
+    private static final int SPRITE_ID = 6;
+    private static final int X = 7;
+    private static final int Y = 8;
+    private static final int WIDTH = 9;
+    private static final int HEIGHT = 10;
+    private static final int HIDDEN = 11;
+    private static final int DYNAMIC_CHILDREN = 12;
+    private static final int STATIC_CHILDREN = 13;
+    private static final int NESTED_CHILDREN = 14;
+    /** Number of ints per widget */
+    private static final int STRIDE = 15;
+
+    private int[] ints;
+    /** Text and name of every widget */
+    private String[] strings;
+    private int size = 0;
+    private int roots = 0;
+    /** Widgets still to be added while capturing, reused between captures */
+    private Widget[] stack = null;
+
+    WidgetSnapshot() {
+        this(256);
+        this.stack = new Widget[64];
+    }
+
+    private WidgetSnapshot(int capacity) {
+        this.ints = new int[capacity * STRIDE];
+        this.strings = new String[capacity * 2];
+    }
+
+    void clear() {
+        this.size = 0;
+        this.roots = 0;
+    }
+
+    /**
+     * Adds the widget and everything below it
+     *
+     * @param skipHidden leave out hidden widgets and everything below them
+     */
+    void addRoot(@Nonnull Widget root, boolean skipHidden) {
+        if (skipHidden && root.isHidden()) {
+            return;
+        }
+        this.roots++;
+
+        // depth-first with an explicit stack; children are pushed in reverse so they're popped in pre-order
+        var top = 0;
+        this.stack[top++] = root;
+        while (top > 0) {
+            var w = this.stack[--top];
+            this.stack[top] = null;
+
+            var row = this.size++;
+            if (row * STRIDE == ints.length) {
+                ints = Arrays.copyOf(ints, ints.length * 2);
+                strings = Arrays.copyOf(strings, strings.length * 2);
+            }
+
+            var bounds = w.getBounds();
+            var offset = row * STRIDE;
+            ints[offset + ID] = w.getId();
+            ints[offset + TYPE] = w.getType();
+            ints[offset + CONTENT_TYPE] = w.getContentType();
+            ints[offset + PARENT_ID] = w.getParentId();
+            ints[offset + ITEM_ID] = w.getItemId();
+            ints[offset + MODEL_ID] = w.getModelId();
+            ints[offset + SPRITE_ID] = w.getSpriteId();
+            ints[offset + X] = bounds.x;
+            ints[offset + Y] = bounds.y;
+            ints[offset + WIDTH] = bounds.width;
+            ints[offset + HEIGHT] = bounds.height;
+            ints[offset + HIDDEN] = w.isHidden() ? 1 : 0;
+            strings[row * 2] = w.getText();
+            strings[row * 2 + 1] = w.getName();
+
+            var nestedTop = this.push(w.getNestedChildren(), top, skipHidden);
+            var staticTop = this.push(w.getStaticChildren(), nestedTop, skipHidden);
+            var dynamicTop = this.push(w.getDynamicChildren(), staticTop, skipHidden);
+            ints[offset + DYNAMIC_CHILDREN] = dynamicTop - staticTop;
+            ints[offset + STATIC_CHILDREN] = staticTop - nestedTop;
+            ints[offset + NESTED_CHILDREN] = nestedTop - top;
+            top = dynamicTop;
+        }
+    }
+
+    /**
+     * Pushes the children that are captured onto the stack, last one first
+     *
+     * @return the new top of the stack
+     */
+    private int push(Widget[] children, int top, boolean skipHidden) {
+        for (var i = children.length - 1; i >= 0; i--) {
+            var child = children[i];
+            // the parent is visible, so only the child's own flag can hide it
+            if (child == null || (skipHidden && child.isSelfHidden())) {
+                continue;
+            }
+
+            if (top == this.stack.length) {
+                this.stack = Arrays.copyOf(this.stack, top * 2);
+            }
+            this.stack[top++] = child;
+        }
+        return top;
+    }
+
+    WidgetSnapshot copy() {
+        var copy = new WidgetSnapshot(0);
+        copy.ints = Arrays.copyOf(ints, size * STRIDE);
+        copy.strings = Arrays.copyOf(strings, size * 2);
+        copy.size = size;
+        copy.roots = roots;
+        return copy;
+    }
+
+    /**
+     * Writes the roots as an array of widget objects, each with its children nested in it
+     */
+    void write(@Nonnull JsonWriter out) throws IOException {
+        out.beginArray();
+        var row = 0;
+        for (var i = 0; i < roots; i++) {
+            row = this.write(out, row);
+        }
+        out.endArray();
+    }
+
+    /**
+     * @return the row after the subtree of this one
+     */
+    private int write(JsonWriter out, int row) throws IOException {
+        var offset = row * STRIDE;
+        var text = strings[row * 2];
+        var name = strings[row * 2 + 1];
+
+        out.beginObject();
+        out.name("id").value(ints[offset + ID]);
+        out.name("type").value(ints[offset + TYPE]);
+        out.name("contentType").value(ints[offset + CONTENT_TYPE]);
+        out.name("parentId").value(ints[offset + PARENT_ID]);
+        out.name("text").value(text == null || text.isEmpty() ? null : text);
+        out.name("name").value(name == null || name.isEmpty() ? null : name);
+        writeId(out, "itemID", ints[offset + ITEM_ID]);
+        writeId(out, "modelID", ints[offset + MODEL_ID]);
+        writeId(out, "spriteID", ints[offset + SPRITE_ID]);
+
+        out.name("bounds");
+        var x = ints[offset + X];
+        var y = ints[offset + Y];
+        var width = ints[offset + WIDTH];
+        var height = ints[offset + HEIGHT];
+        if (width == 0 && height == 0 && x == -1 && y == -1) {
+            out.nullValue();
+        } else {
+            out.beginObject();
+            out.name("x").value(x);
+            out.name("y").value(y);
+            out.name("width").value(width);
+            out.name("height").value(height);
+            out.endObject();
+        }
+
+        out.name("hidden").value(ints[offset + HIDDEN] != 0);
+
+        var next = row + 1;
+        next = this.writeChildren(out, "dynamicChildren", ints[offset + DYNAMIC_CHILDREN], next);
+        next = this.writeChildren(out, "staticChildren", ints[offset + STATIC_CHILDREN], next);
+        next = this.writeChildren(out, "nestedChildren", ints[offset + NESTED_CHILDREN], next);
+        out.endObject();
+        return next;
+    }
+
+    private static void writeId(JsonWriter out, String name, int id) throws IOException {
+        out.name(name);
+        if (id >= 0) {
+            out.value(id);
+        } else {
+            out.nullValue();
+        }
+    }
+
+    private int writeChildren(JsonWriter out, String name, int count, int row) throws IOException {
+        if (count == 0) {
+            out.name(name).nullValue();
+            return row;
+        }
+
+        out.name(name).beginArray();
+        for (var i = 0; i < count; i++) {
+            row = this.write(out, row);
+        }
+        out.endArray();
+        return row;
+    }
+}
@@ -4,6 +4,7 @@
 
 package actionlogger.trackers;
 
+import actionlogger.writers.EventSource;
 import actionlogger.writers.JsonWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.Value;
@@ -48,6 +49,7 @@ public class AnimationTracker {
 
     @Subscribe(priority = -1) // late priority for player.getWorldLocation() to update
     public void onAnimationChanged(AnimationChanged event) {
+        this.writer.getMetrics().countEvent(EventSource.ANIMATION);
         Player player = client.getLocalPlayer();
         if (player == null || !player.equals(event.getActor())) {
             return;
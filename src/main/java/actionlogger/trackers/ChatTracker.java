@@ -4,35 +4,77 @@
 
 package actionlogger.trackers;
 
+import actionlogger.ActionLoggerConfig;
+import actionlogger.writers.BinaryOutput;
+import actionlogger.writers.BinaryRecord;
+import actionlogger.writers.EventSource;
 import actionlogger.writers.JsonWriter;
-import lombok.RequiredArgsConstructor;
+import actionlogger.writers.RecordPriority;
+import actionlogger.writers.RecordTypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.ChatMessageType;
 import net.runelite.api.events.ChatMessage;
 import net.runelite.client.eventbus.Subscribe;
 
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
+
 @Slf4j
-@RequiredArgsConstructor
 public class ChatTracker {
     private final JsonWriter writer;
+    private final ActionLoggerConfig config;
+
+    private volatile Set<ChatMessageType> types;
+
+    public ChatTracker(@Nonnull JsonWriter writer, @Nonnull ActionLoggerConfig config) {
+        this.writer = writer;
+        this.config = config;
+        this.loadConfig();
+    }
+
+    /**
+     * May be called from any thread
+     */
+    public void loadConfig() {
+        var types = config.chatTypes();
+        this.types = types.isEmpty() ? EnumSet.noneOf(ChatMessageType.class) : EnumSet.copyOf(types);
+    }
 
     @Subscribe
     public void onChatMessage(ChatMessage e) {
-        if (e.getType() == ChatMessageType.ITEM_EXAMINE ||
-            e.getType() == ChatMessageType.GAMEMESSAGE ||
-            e.getType() == ChatMessageType.MESBOX ||
-            e.getType() == ChatMessageType.DIALOG ||
-            e.getType() == ChatMessageType.CONSOLE) {
-            this.writer.write("CHAT", new ChatTracker.ChatData(e.getType().toString(), e.getName(), e.getMessage()));
+        this.writer.getMetrics().countEvent(EventSource.CHAT);
+        if (this.types.contains(e.getType())) {
+            this.writer.write("CHAT", new ChatTracker.ChatData(e.getType().toString(), e.getName(), e.getMessage()), RecordPriority.LOW);
         }
     }
 
-
     @Value
-    private static class ChatData {
+    @JsonAdapter(ChatData.Adapter.class)
+    private static class ChatData implements BinaryRecord {
         String type;
         String name;
         String message;
+
+        @Override
+        public void writeBinary(@Nonnull BinaryOutput out) {
+            out.writeString(type);
+            out.writeString(name);
+            out.writeString(message);
+        }
+
+        private static class Adapter extends RecordTypeAdapter<ChatData> {
+            @Override
+            public void write(com.google.gson.stream.JsonWriter out, ChatData value) throws IOException {
+                out.beginObject();
+                out.name("type").value(value.type);
+                out.name("name").value(value.name);
+                out.name("message").value(value.message);
+                out.endObject();
+            }
+        }
     }
 }
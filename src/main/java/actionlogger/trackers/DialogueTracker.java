@@ -4,7 +4,9 @@
 
 package actionlogger.trackers;
 
+import actionlogger.writers.EventSource;
 import actionlogger.writers.JsonWriter;
+import actionlogger.writers.RecordPriority;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.Value;
@@ -14,17 +16,12 @@ import net.runelite.api.MenuAction;
 import net.runelite.api.NPC;
 import net.runelite.api.coords.WorldPoint;
 import net.runelite.api.events.*;
-import net.runelite.api.widgets.ComponentID;
-import net.runelite.api.widgets.Widget;
 import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.input.KeyListener;
 
 import javax.annotation.Nullable;
 import java.awt.event.KeyEvent;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
 
 import static java.awt.event.KeyEvent.*;
 
@@ -36,11 +33,15 @@ public class DialogueTracker implements KeyListener {
 
     private final JsonWriter writer;
     private final Client client;
+
+    /** A bit per {@link DialogueWidget} whose interface group is currently loaded */
+    private int openDialogueGroups = 0;
+    private boolean scanOpenGroups = true;
     private @Nullable DialogueEndedData dialogueEndedData = null;
     private String lastInteractedNpcName;
     private Integer lastInteractedNpcID;
     private WorldPoint lastInteractedNpcPosition;
-    private Integer lastDialogueWidgetID;
+    private @Nullable DialogueWidget lastDialogueWidget;
     private String lastDialogueText;
     private List<String> lastDialogueOptions;
 
@@ -103,21 +104,18 @@ public class DialogueTracker implements KeyListener {
     public void keyReleased(KeyEvent e) {
     }
 
-    private void beginDialogue(String actorName, Integer actorID, String text, List<String> options) {
+    private void beginDialogue(DialogueWidget type, String actorName, Integer actorID, String text, List<String> options) {
         assert this.dialogueEndedData == null;
 
+        // there may be no local player in some cutscenes, but their dialogue is still worth recording
         var localPlayer = client.getLocalPlayer();
-        if (localPlayer == null) {
-            log.debug("Dialogue began, but no local player found");
-            return;
-        }
+        var playerPosition = localPlayer != null ? localPlayer.getWorldLocation() : null;
 
-        var playerPosition = localPlayer.getWorldLocation();
+        this.writer.write(DIALOGUE_STARTED, new DialogueStartedData(actorName, actorID, lastInteractedNpcName, lastInteractedNpcID, lastInteractedNpcPosition, playerPosition, text, options, type), RecordPriority.HIGH);
 
-        this.writer.write(DIALOGUE_STARTED, new DialogueStartedData(actorName, actorID, lastInteractedNpcName, lastInteractedNpcID, lastInteractedNpcPosition, playerPosition, text, options));
-
-        this.dialogueEndedData = new DialogueEndedData(actorName, actorID, lastInteractedNpcName, lastInteractedNpcID, lastInteractedNpcPosition, playerPosition, text, options);
+        this.dialogueEndedData = new DialogueEndedData(actorName, actorID, lastInteractedNpcName, lastInteractedNpcID, lastInteractedNpcPosition, playerPosition, text, options, type);
 
+        this.lastDialogueWidget = type;
         this.lastDialogueText = text;
         this.lastDialogueOptions = options;
     }
@@ -125,13 +123,14 @@ public class DialogueTracker implements KeyListener {
     private void endDialogue() {
         assert this.dialogueEndedData != null;
 
-        this.writer.write(DIALOGUE_ENDED, this.dialogueEndedData);
+        this.writer.write(DIALOGUE_ENDED, this.dialogueEndedData, RecordPriority.HIGH);
 
         this.dialogueEndedData = null;
     }
 
     @Subscribe
     public void onInteractingChanged(InteractingChanged event) {
+        this.writer.getMetrics().countEvent(EventSource.DIALOGUE);
         if (event.getSource() == client.getLocalPlayer() && event.getTarget() != null) {
             var target = event.getTarget();
             if (target instanceof NPC) {
@@ -145,77 +144,85 @@ public class DialogueTracker implements KeyListener {
         }
     }
 
+    @Subscribe
+    public void onWidgetLoaded(WidgetLoaded event) {
+        this.writer.getMetrics().countEvent(EventSource.DIALOGUE);
+        this.openDialogueGroups |= DialogueWidget.groupBits(event.getGroupId());
+    }
+
+    @Subscribe
+    public void onWidgetClosed(WidgetClosed event) {
+        this.writer.getMetrics().countEvent(EventSource.DIALOGUE);
+        var bits = DialogueWidget.groupBits(event.getGroupId());
+        if (bits == 0) {
+            return;
+        }
+
+        this.openDialogueGroups &= ~bits;
+        if (this.dialogueEndedData != null && this.lastDialogueWidget != null && this.lastDialogueWidget.getGroupId() == event.getGroupId()) {
+            // The widget of the dialogue closed, so the dialogue ended
+            this.endDialogue();
+        }
+    }
+
     @Subscribe
     void onGameTick(GameTick e) {
-        var npcDialogueTextWidget = client.getWidget(ComponentID.DIALOG_NPC_TEXT);
-        var playerDialogueTextWidget = client.getWidget(ComponentID.DIALOG_PLAYER_TEXT);
-        var playerDialogueOptionsWidget = client.getWidget(ComponentID.DIALOG_OPTION_OPTIONS);
-        // TODO: Implement other widgets (as seen in the crowd-sourcing plugin)
-        // Ensure quest dialogue that appears during quest cutscenes work as expected
-
-        if (this.dialogueEndedData != null && this.lastDialogueWidgetID != null) {
-            var w = client.getWidget(this.lastDialogueWidgetID);
+        if (this.scanOpenGroups) {
+            // dialogues that were already open when the tracker was registered didn't send a WidgetLoaded
+            this.scanOpenGroups = false;
+            for (var type : DialogueWidget.VALUES) {
+                if (client.getWidget(type.getGroupId(), 0) != null) {
+                    this.openDialogueGroups |= 1 << type.ordinal();
+                }
+            }
+        }
+
+        if (this.openDialogueGroups == 0) {
+            // no dialogue is open, which is the case on almost every tick
+            return;
+        }
+
+        if (this.dialogueEndedData != null && this.lastDialogueWidget != null) {
+            var w = client.getWidget(this.lastDialogueWidget.getTextComponent());
             if (w == null) {
                 // Previous widget closed, so the dialogue ended
                 this.endDialogue();
-            } else {
-                if (!w.getText().equals(this.lastDialogueText)) {
-                    // The same widget is open, but the text has changed
-                    this.endDialogue();
-                } else {
-                    var children = w.getChildren();
-                    if (children != null) {
-                        var dialogueOptions = Arrays.stream(children).filter(Objects::nonNull).map(Widget::getText).filter(s -> !s.isBlank()).collect(Collectors.toList());
-                        if (!dialogueOptions.equals(this.lastDialogueOptions)) {
-                            // The same widget is option, but the options have changed
-                            this.endDialogue();
-                        }
-                    }
-                }
+            } else if (!w.getText().equals(this.lastDialogueText)) {
+                // The same widget is open, but the text has changed
+                this.endDialogue();
+            } else if (!this.lastDialogueWidget.hasOptions(w, this.lastDialogueOptions)) {
+                // The same widget is open, but the options have changed
+                this.endDialogue();
             }
         }
 
+        // the text of a dialogue widget is only set by scripts after it's loaded, so it's read here rather than on WidgetLoaded
         if (this.dialogueEndedData == null) {
-            if (npcDialogueTextWidget != null) {
-                this.lastDialogueWidgetID = npcDialogueTextWidget.getId();
-
-                String actorName = null;
-                Integer actorID = null;
-                var modelWidget = client.getWidget(ComponentID.DIALOG_NPC_HEAD_MODEL);
-                if (modelWidget != null) {
-                    actorID = modelWidget.getModelId();
-                }
-                var nameWidget = client.getWidget(ComponentID.DIALOG_NPC_NAME);
-                if (nameWidget != null) {
-                    actorName = nameWidget.getText();
-                }
-
-                this.beginDialogue(actorName, actorID, npcDialogueTextWidget.getText(), null);
-            } else if (playerDialogueTextWidget != null) {
-                this.lastDialogueWidgetID = playerDialogueTextWidget.getId();
-
-                String actorName = client.getLocalPlayer().getName();
-
-                this.beginDialogue(actorName, null, playerDialogueTextWidget.getText(), null);
-            } else if (playerDialogueOptionsWidget != null) {
-                this.lastDialogueWidgetID = playerDialogueOptionsWidget.getId();
-
-                var children = playerDialogueOptionsWidget.getChildren();
-                if (children == null) {
-                    log.debug("Dialog options without children?");
+            for (var type : DialogueWidget.VALUES) {
+                if ((this.openDialogueGroups & 1 << type.ordinal()) != 0 && this.tryBeginDialogue(type)) {
                     return;
                 }
-                var dialogueOptions = Arrays.stream(children).filter(Objects::nonNull).map(Widget::getText).filter(s -> !s.isBlank()).collect(Collectors.toList());
-
-                String actorName = client.getLocalPlayer().getName();
-
-                this.beginDialogue(actorName, null, playerDialogueOptionsWidget.getText(), dialogueOptions);
             }
         }
     }
 
+    private boolean tryBeginDialogue(DialogueWidget type) {
+        var textWidget = client.getWidget(type.getTextComponent());
+        if (textWidget == null) {
+            return false;
+        }
+        if (type.isOptions() && textWidget.getChildren() == null) {
+            log.debug("Dialog options without children?");
+            return false;
+        }
+
+        this.beginDialogue(type, type.readActorName(client), type.readActorId(client), textWidget.getText(), type.readOptions(textWidget));
+        return true;
+    }
+
     @Subscribe
     public void onMenuOptionClicked(MenuOptionClicked e) {
+        this.writer.getMetrics().countEvent(EventSource.DIALOGUE);
         if (e.getMenuAction() == MenuAction.WIDGET_CONTINUE) {
             if (this.dialogueEndedData != null && this.dialogueEndedData.dialogueOptionChosen == null) {
                 // 1-indexed, so first option is 1, second option is 2
@@ -235,6 +242,7 @@ public class DialogueTracker implements KeyListener {
         WorldPoint playerPosition;
         String dialogueText;
         List<String> dialogueOptions;
+        DialogueWidget dialogueType;
     }
 
     @Data
@@ -247,6 +255,7 @@ public class DialogueTracker implements KeyListener {
         private final WorldPoint playerPosition;
         private final String dialogueText;
         private final List<String> dialogueOptions;
+        private final DialogueWidget dialogueType;
         private Integer dialogueOptionChosen = -1;
     }
 }
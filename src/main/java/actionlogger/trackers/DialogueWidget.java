@@ -0,0 +1,156 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.trackers;
+
+import lombok.Getter;
+import net.runelite.api.Client;
+import net.runelite.api.widgets.ComponentID;
+import net.runelite.api.widgets.Widget;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The dialogue widgets {@link DialogueTracker} recognizes, in the order they're checked.
+ * <p>
+ * A dialogue of a kind starts when its text component appears, and ends when the component goes away, its text changes, or
+ * for kinds with options, its options change. Dialogues in quest cutscenes use the same widgets.
+ */
+@Getter
+enum DialogueWidget {
+    NPC(ComponentID.DIALOG_NPC_TEXT, ActorName.COMPONENT, ComponentID.DIALOG_NPC_NAME, ActorId.MODEL, ComponentID.DIALOG_NPC_HEAD_MODEL, false),
+    PLAYER(ComponentID.DIALOG_PLAYER_TEXT, ActorName.LOCAL_PLAYER, -1, ActorId.NONE, -1, false),
+    OPTIONS(ComponentID.DIALOG_OPTION_OPTIONS, ActorName.LOCAL_PLAYER, -1, ActorId.NONE, -1, true),
+    /** A single item or sprite with text, e.g. when an item is received; the actor id is the item id */
+    SPRITE(ComponentID.DIALOG_SPRITE_TEXT, ActorName.NONE, -1, ActorId.ITEM, ComponentID.DIALOG_SPRITE_SPRITE, false),
+    /** Two items with text, e.g. when items are combined; the actor id is the first item id */
+    DOUBLE_SPRITE(ComponentID.DIALOG_DOUBLE_SPRITE_TEXT, ActorName.NONE, -1, ActorId.ITEM, ComponentID.DIALOG_DOUBLE_SPRITE_SPRITE1, false),
+    /** The text is the new level, the actor name the congratulation that names the skill */
+    LEVEL_UP(ComponentID.LEVEL_UP_LEVEL, ActorName.COMPONENT, ComponentID.LEVEL_UP_SKILL, ActorId.NONE, -1, false);
+
+    static final DialogueWidget[] VALUES = values();
+
+    enum ActorName {
+        NONE,
+        /** The text of {@link #actorNameComponent} */
+        COMPONENT,
+        LOCAL_PLAYER,
+    }
+
+    enum ActorId {
+        NONE,
+        /** The model of {@link #actorIdComponent} */
+        MODEL,
+        /** The item of {@link #actorIdComponent} */
+        ITEM,
+    }
+
+    private final int textComponent;
+    private final int groupId;
+    private final ActorName actorName;
+    private final int actorNameComponent;
+    private final ActorId actorId;
+    private final int actorIdComponent;
+    /** Whether the children of the text component are options to choose from */
+    private final boolean options;
+
+    DialogueWidget(int textComponent, ActorName actorName, int actorNameComponent, ActorId actorId, int actorIdComponent, boolean options) {
+        this.textComponent = textComponent;
+        this.groupId = textComponent >>> 16;
+        this.actorName = actorName;
+        this.actorNameComponent = actorNameComponent;
+        this.actorId = actorId;
+        this.actorIdComponent = actorIdComponent;
+        this.options = options;
+    }
+
+    @Nullable
+    String readActorName(@Nonnull Client client) {
+        switch (actorName) {
+            case COMPONENT:
+                var widget = client.getWidget(actorNameComponent);
+                return widget != null ? widget.getText() : null;
+            case LOCAL_PLAYER:
+                var player = client.getLocalPlayer();
+                return player != null ? player.getName() : null;
+            case NONE:
+            default:
+                return null;
+        }
+    }
+
+    @Nullable
+    Integer readActorId(@Nonnull Client client) {
+        if (actorId == ActorId.NONE) {
+            return null;
+        }
+
+        var widget = client.getWidget(actorIdComponent);
+        if (widget == null) {
+            return null;
+        }
+        return actorId == ActorId.MODEL ? widget.getModelId() : widget.getItemId();
+    }
+
+    /**
+     * @return the non-blank texts of the children of the text widget, or null for kinds without options
+     */
+    @Nullable
+    List<String> readOptions(@Nonnull Widget textWidget) {
+        if (!options) {
+            return null;
+        }
+
+        var children = textWidget.getChildren();
+        var texts = new ArrayList<String>(children != null ? children.length : 0);
+        if (children != null) {
+            for (var child : children) {
+                if (child != null && !child.getText().isBlank()) {
+                    texts.add(child.getText());
+                }
+            }
+        }
+        return texts;
+    }
+
+    /**
+     * Compares the options of the text widget with the options read earlier, without collecting them into a new list
+     */
+    boolean hasOptions(@Nonnull Widget textWidget, @Nullable List<String> expected) {
+        if (!options) {
+            return true;
+        }
+
+        var children = textWidget.getChildren();
+        var count = 0;
+        if (children != null) {
+            for (var child : children) {
+                if (child == null || child.getText().isBlank()) {
+                    continue;
+                }
+                if (expected == null || count >= expected.size() || !child.getText().equals(expected.get(count))) {
+                    return false;
+                }
+                count++;
+            }
+        }
+        return count == (expected != null ? expected.size() : 0);
+    }
+
+    /**
+     * @return a bit per kind whose widgets are part of this interface group
+     */
+    static int groupBits(int groupId) {
+        var bits = 0;
+        for (var widget : VALUES) {
+            if (widget.groupId == groupId) {
+                bits |= 1 << widget.ordinal();
+            }
+        }
+        return bits;
+    }
+}
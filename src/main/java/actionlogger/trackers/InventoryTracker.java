@@ -5,62 +5,285 @@
 
 package actionlogger.trackers;
 
+import actionlogger.ActionLoggerConfig;
+import actionlogger.writers.BinaryOutput;
+import actionlogger.writers.BinaryRecord;
+import actionlogger.writers.Coalescable;
+import actionlogger.writers.EventSource;
 import actionlogger.writers.JsonWriter;
-import lombok.RequiredArgsConstructor;
+import actionlogger.writers.RecordTypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Item;
 import net.runelite.api.events.ItemContainerChanged;
-import net.runelite.api.gameval.InventoryID;
 import net.runelite.client.eventbus.Subscribe;
 
+import javax.annotation.Nonnull;
+import java.io.IOException;
 import java.util.Arrays;
 
+/**
+ * Follows the item containers chosen in the config, keeping a copy of every slot to write only the slots that changed
+ */
 @Slf4j
-@RequiredArgsConstructor
 public class InventoryTracker {
-    private static final String TYPE = "INVENTORY_CHANGED";
-    private static final int INVENTORY_SIZE = 28;
+    private static final String CHANGED_TYPE = "ITEM_CONTAINER_CHANGED";
+    private static final String SNAPSHOT_TYPE = "ITEM_CONTAINER_SNAPSHOT";
 
     private final JsonWriter writer;
+    private final ActionLoggerConfig config;
 
-    private int[] inventoryItemIDs = filled(INVENTORY_SIZE, -1);
-    private int[] inventoryQuantities = filled(INVENTORY_SIZE, 0);
+    /**
+     * One per tracked container, looked up with a linear scan since there are only a handful.
+     * Replaced as a whole when the config changes; the states themselves are only touched from the client thread.
+     */
+    private volatile ContainerState[] containers = new ContainerState[0];
+    private volatile int snapshotInterval;
+
+    public InventoryTracker(@Nonnull JsonWriter writer, @Nonnull ActionLoggerConfig config) {
+        this.writer = writer;
+        this.config = config;
+        this.loadConfig();
+    }
+
+    /**
+     * May be called from any thread
+     */
+    public void loadConfig() {
+        this.snapshotInterval = config.containerSnapshotInterval();
+
+        var tracked = config.trackedContainers();
+        var previous = this.containers;
+        var containers = new ContainerState[tracked.size()];
+        var i = 0;
+        for (var container : tracked) {
+            var state = find(previous, container.getContainerId());
+            // containers that are tracked again start over with a snapshot, as changes were missed in between
+            containers[i++] = state != null ? state : new ContainerState(container.getContainerId());
+        }
+        this.containers = containers;
+    }
 
     @Subscribe
     public void onItemContainerChanged(ItemContainerChanged event) {
-        if (event.getContainerId() != InventoryID.INV) {
+        this.writer.getMetrics().countEvent(EventSource.ITEM_CONTAINERS);
+        var state = find(this.containers, event.getContainerId());
+        if (state == null) {
             return;
         }
 
         var items = event.getItemContainer().getItems();
-        var itemIDs = Arrays.stream(items).mapToInt(Item::getId).toArray();
-        var itemQuantities = Arrays.stream(items).mapToInt(Item::getQuantity).toArray();
-
-        if (!Arrays.equals(inventoryItemIDs, itemIDs) || !Arrays.equals(inventoryQuantities, itemQuantities)) {
-            var data = new InventoryChangedData(
-                this.inventoryItemIDs,
-                this.inventoryQuantities,
-                itemIDs,
-                itemQuantities
-            );
-            this.writer.write(TYPE, data);
-            this.inventoryItemIDs = itemIDs;
-            this.inventoryQuantities = itemQuantities;
+        if (!state.known) {
+            state.reset(items);
+            this.writeSnapshot(state);
+            return;
+        }
+
+        var changes = state.diff(items);
+        if (changes == 0) {
+            return;
+        }
+
+        this.writer.write(CHANGED_TYPE, new ContainerChangedData(state.containerId, Arrays.copyOf(state.delta, changes)));
+
+        var interval = this.snapshotInterval;
+        if (interval > 0 && ++state.changesSinceSnapshot >= interval) {
+            this.writeSnapshot(state);
+        }
+    }
+
+    private void writeSnapshot(ContainerState state) {
+        state.changesSinceSnapshot = 0;
+        this.writer.write(SNAPSHOT_TYPE, new ContainerSnapshotData(
+            state.containerId,
+            Arrays.copyOf(state.ids, state.size),
+            Arrays.copyOf(state.quantities, state.size)
+        ));
+    }
+
+    private static ContainerState find(ContainerState[] containers, int containerId) {
+        for (var state : containers) {
+            if (state.containerId == containerId) {
+                return state;
+            }
+        }
+        return null;
+    }
+
+    static class ContainerState {
+        /** Number of ints per entry of {@link #delta}: slot, old id, old quantity, new id, new quantity */
+        static final int STRIDE = 5;
+
+        final int containerId;
+
+        /** false until the first event, so the first record of a container is a snapshot */
+        boolean known = false;
+
+        /** Item id (-1 if empty) and quantity of every slot. Slots past {@link #size} are empty */
+        int[] ids = new int[0];
+        int[] quantities = new int[0];
+        int size = 0;
+
+        /** Scratch space for the changed slots of the current event, reused between events */
+        int[] delta = new int[0];
+
+        int changesSinceSnapshot = 0;
+
+        ContainerState(int containerId) {
+            this.containerId = containerId;
+        }
+
+        void reset(Item[] items) {
+            this.ensureCapacity(items.length);
+            for (var slot = 0; slot < items.length; slot++) {
+                ids[slot] = items[slot].getId();
+                quantities[slot] = items[slot].getQuantity();
+            }
+            Arrays.fill(ids, items.length, ids.length, -1);
+            Arrays.fill(quantities, items.length, quantities.length, 0);
+            this.size = items.length;
+            this.known = true;
+        }
+
+        /**
+         * Compares the items with the stored slots in a single pass, storing the new values and an entry in {@link #delta}
+         * for every slot that changed
+         *
+         * @return how many ints of {@link #delta} were filled
+         */
+        int diff(Item[] items) {
+            var oldSize = this.size;
+            this.ensureCapacity(items.length);
+
+            var length = 0;
+            var end = Math.max(oldSize, items.length);
+            for (var slot = 0; slot < end; slot++) {
+                int id;
+                int quantity;
+                if (slot < items.length) {
+                    var item = items[slot];
+                    id = item.getId();
+                    quantity = item.getQuantity();
+                } else {
+                    id = -1;
+                    quantity = 0;
+                }
+
+                var oldId = ids[slot];
+                var oldQuantity = quantities[slot];
+                if (id != oldId || quantity != oldQuantity) {
+                    delta[length] = slot;
+                    delta[length + 1] = oldId;
+                    delta[length + 2] = oldQuantity;
+                    delta[length + 3] = id;
+                    delta[length + 4] = quantity;
+                    length += STRIDE;
+                    ids[slot] = id;
+                    quantities[slot] = quantity;
+                }
+            }
+
+            this.size = items.length;
+            return length;
+        }
+
+        private void ensureCapacity(int slots) {
+            if (slots <= ids.length) {
+                return;
+            }
+
+            var oldLength = ids.length;
+            ids = Arrays.copyOf(ids, slots);
+            quantities = Arrays.copyOf(quantities, slots);
+            Arrays.fill(ids, oldLength, slots, -1);
+            delta = new int[slots * STRIDE];
         }
     }
 
-    private static int[] filled(int size, int value) {
-        final int[] arr = new int[size];
-        Arrays.fill(arr, value);
-        return arr;
+    @Value
+    @JsonAdapter(ContainerChangedData.Adapter.class)
+    static class ContainerChangedData implements BinaryRecord, Coalescable<ContainerChangedData> {
+        int container;
+        /** Flat (slot, old id, old quantity, new id, new quantity) entries in slot order */
+        int[] slots;
+
+        @Nonnull
+        @Override
+        public Object coalesceKey() {
+            return container;
+        }
+
+        @Nonnull
+        @Override
+        public ContainerChangedData coalesce(@Nonnull ContainerChangedData newer) {
+            // both are in slot order, so they merge like sorted lists; a slot in both keeps the older old and the newer new values
+            var stride = ContainerState.STRIDE;
+            var a = this.slots;
+            var b = newer.slots;
+            var merged = new int[a.length + b.length];
+            int i = 0, j = 0, length = 0;
+            while (i < a.length || j < b.length) {
+                if (j >= b.length || (i < a.length && a[i] < b[j])) {
+                    System.arraycopy(a, i, merged, length, stride);
+                    i += stride;
+                } else if (i >= a.length || b[j] < a[i]) {
+                    System.arraycopy(b, j, merged, length, stride);
+                    j += stride;
+                } else {
+                    System.arraycopy(a, i, merged, length, 3);
+                    System.arraycopy(b, j + 3, merged, length + 3, 2);
+                    i += stride;
+                    j += stride;
+                }
+                length += stride;
+            }
+            return new ContainerChangedData(container, Arrays.copyOf(merged, length));
+        }
+
+        @Override
+        public void writeBinary(@Nonnull BinaryOutput out) {
+            out.writeInt(container);
+            out.writeIntArray(slots);
+        }
+
+        private static class Adapter extends RecordTypeAdapter<ContainerChangedData> {
+            @Override
+            public void write(com.google.gson.stream.JsonWriter out, ContainerChangedData value) throws IOException {
+                out.beginObject();
+                out.name("container").value(value.container);
+                out.name("slots");
+                writeIntArray(out, value.slots);
+                out.endObject();
+            }
+        }
     }
 
     @Value
-    private static class InventoryChangedData {
-        int[] oldInventory;
-        int[] oldQuantities;
-        int[] newInventory;
-        int[] newQuantities;
+    @JsonAdapter(ContainerSnapshotData.Adapter.class)
+    private static class ContainerSnapshotData implements BinaryRecord {
+        int container;
+        int[] ids;
+        int[] quantities;
+
+        @Override
+        public void writeBinary(@Nonnull BinaryOutput out) {
+            out.writeInt(container);
+            out.writeIntArray(ids);
+            out.writeIntArray(quantities);
+        }
+
+        private static class Adapter extends RecordTypeAdapter<ContainerSnapshotData> {
+            @Override
+            public void write(com.google.gson.stream.JsonWriter out, ContainerSnapshotData value) throws IOException {
+                out.beginObject();
+                out.name("container").value(value.container);
+                out.name("ids");
+                writeIntArray(out, value.ids);
+                out.name("quantities");
+                writeIntArray(out, value.quantities);
+                out.endObject();
+            }
+        }
     }
 }
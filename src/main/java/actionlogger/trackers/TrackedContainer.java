@@ -0,0 +1,29 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.trackers;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import net.runelite.api.gameval.InventoryID;
+
+/**
+ * Item containers {@link InventoryTracker} can follow. The rune pouch isn't one, its runes are stored in varbits.
+ */
+@RequiredArgsConstructor
+public enum TrackedContainer {
+    INVENTORY("Inventory", InventoryID.INV),
+    EQUIPMENT("Equipment", InventoryID.WORN),
+    BANK("Bank", InventoryID.BANK),
+    LOOTING_BAG("Looting bag", InventoryID.LOOTING_BAG);
+
+    private final String name;
+    @Getter
+    private final int containerId;
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
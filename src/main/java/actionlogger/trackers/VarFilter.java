@@ -0,0 +1,90 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.trackers;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import java.util.BitSet;
+
+/**
+ * Allow and deny lists of var ids, compiled from config strings like {@code "1-3, 10, 4000-4010"}.
+ * <p>
+ * The lists may be replaced from any thread while {@link #test(int)} runs on the client thread; the suppressed counters are
+ * only touched from the client thread.
+ */
+@Slf4j
+public class VarFilter {
+    /**
+     * Highest id a list may contain, so a typo can't make a list allocate hundreds of megabytes
+     */
+    static final int MAX_ID = (1 << 20) - 1;
+
+    /** null allows every id */
+    @Nullable
+    private volatile BitSet allowed = null;
+    private volatile BitSet denied = new BitSet();
+
+    /** How many changes weren't recorded because their id is on the deny list */
+    @Getter
+    private long deniedCount = 0;
+
+    /** How many changes weren't recorded because the allow list is set and their id isn't on it */
+    @Getter
+    private long notAllowedCount = 0;
+
+    void update(@Nullable String allowList, @Nullable String denyList) {
+        var allowed = parse(allowList);
+        this.allowed = allowed.isEmpty() ? null : allowed;
+        this.denied = parse(denyList);
+    }
+
+    /**
+     * @return true if a change of the var with this id should be recorded
+     */
+    boolean test(int id) {
+        if (denied.get(id)) {
+            deniedCount++;
+            return false;
+        }
+
+        var allowed = this.allowed;
+        if (allowed != null && !allowed.get(id)) {
+            notAllowedCount++;
+            return false;
+        }
+
+        return true;
+    }
+
+    static BitSet parse(@Nullable String list) {
+        var ids = new BitSet();
+        if (list == null) {
+            return ids;
+        }
+
+        for (var entry : list.split("[,\\s]+")) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+
+            try {
+                var dash = entry.indexOf('-', 1);
+                var from = Integer.parseInt(dash < 0 ? entry : entry.substring(0, dash));
+                var to = dash < 0 ? from : Integer.parseInt(entry.substring(dash + 1));
+                if (from < 0 || to < from || to > MAX_ID) {
+                    log.warn("Ignoring var range {}, ids must be between 0 and {}", entry, MAX_ID);
+                    continue;
+                }
+                ids.set(from, to + 1);
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring var id {}, expected an id or a range like 10-20", entry);
+            }
+        }
+
+        return ids;
+    }
+}
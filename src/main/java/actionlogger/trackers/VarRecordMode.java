@@ -0,0 +1,27 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.trackers;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public enum VarRecordMode {
+    /**
+     * A VARBIT_CHANGED or VARPLAYER_CHANGED record for every change
+     */
+    EVERY_CHANGE("Every change"),
+
+    /**
+     * One VAR_TICK record per game tick with the net change of every var that changed during it
+     */
+    PER_TICK("Once per tick");
+
+    private final String name;
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
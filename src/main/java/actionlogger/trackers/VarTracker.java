@@ -4,60 +4,236 @@
 
 package actionlogger.trackers;
 
+import actionlogger.ActionLoggerConfig;
+import actionlogger.writers.BinaryOutput;
+import actionlogger.writers.BinaryRecord;
+import actionlogger.writers.Coalescable;
+import actionlogger.writers.EventSource;
 import actionlogger.writers.JsonWriter;
-import lombok.RequiredArgsConstructor;
+import actionlogger.writers.RecordTypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import lombok.Getter;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.api.events.GameTick;
 import net.runelite.api.events.VarbitChanged;
 import net.runelite.client.eventbus.Subscribe;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.Arrays;
 
 @Slf4j
-@RequiredArgsConstructor
 public class VarTracker {
     private static final String VARB_TYPE = "VARBIT_CHANGED";
     private static final String VARP_TYPE = "VARPLAYER_CHANGED";
+    private static final String TICK_TYPE = "VAR_TICK";
 
-    private static final Set<Integer> IGNORED_VARBITS = Set.of(1, 2, 3);
-    private static final Set<Integer> IGNORED_VARPS = Set.of(1, 2, 3);
+    /** Varbits have no count in the client API; the table starts at this size and grows to the highest id seen */
+    private static final int INITIAL_VARBITS = 1 << 14;
 
     private final JsonWriter writer;
-    private final Map<Integer, Integer> varbits = new HashMap<>();
-    private final Map<Integer, Integer> varps = new HashMap<>();
+    private final ActionLoggerConfig config;
+
+    /**
+     * Last seen value of every var, indexed by id. A var that hasn't been seen yet reads as 0.
+     * Only touched from the client thread.
+     */
+    private int[] varbits = new int[INITIAL_VARBITS];
+    private int[] varps;
+
+    private final TickChanges varbitChanges = new TickChanges();
+    private final TickChanges varpChanges = new TickChanges();
+    private volatile boolean perTick;
+
+    @Getter
+    private final VarFilter varbitFilter = new VarFilter();
+    @Getter
+    private final VarFilter varpFilter = new VarFilter();
+
+    public VarTracker(@Nonnull JsonWriter writer, @Nonnull Client client, @Nonnull ActionLoggerConfig config) {
+        this.writer = writer;
+        this.config = config;
+        this.varps = new int[client.getVarps().length];
+        this.loadConfig();
+    }
+
+    /**
+     * May be called from any thread
+     */
+    public void loadConfig() {
+        this.perTick = config.varRecords() == VarRecordMode.PER_TICK;
+        this.varbitFilter.update(config.varbitAllowList(), config.varbitDenyList());
+        this.varpFilter.update(config.varpAllowList(), config.varpDenyList());
+    }
 
     @Subscribe
     public void onVarbitChanged(VarbitChanged event) {
+        this.writer.getMetrics().countEvent(EventSource.VARS);
         var id = event.getVarbitId();
 
         if (id == -1) {
             // varp changed
-            this.handleChange(event.getVarpId(), event.getValue(), IGNORED_VARPS, varps, VARP_TYPE);
+            id = event.getVarpId();
+            if (id < 0) {
+                return;
+            }
+            if (id >= varps.length) {
+                varps = grow(varps, id);
+            }
+            this.handleChange(id, event.getValue(), varps, varpFilter, varpChanges, VARP_TYPE);
         } else {
             // varbit changed
-            this.handleChange(id, event.getValue(), IGNORED_VARBITS, varbits, VARB_TYPE);
+            if (id < 0) {
+                return;
+            }
+            if (id >= varbits.length) {
+                varbits = grow(varbits, id);
+            }
+            this.handleChange(id, event.getValue(), varbits, varbitFilter, varbitChanges, VARB_TYPE);
         }
     }
 
-    private void handleChange(int id, int value, Set<Integer> ignored, Map<Integer, Integer> map, String type) {
-        if (ignored.contains(id)) {
+    @Subscribe
+    public void onGameTick(GameTick event) {
+        // also runs after switching back to every change, to write what was gathered before
+        if (varbitChanges.isEmpty() && varpChanges.isEmpty()) {
             return;
         }
 
-        var previous = map.put(id, value);
-        var prevValue = previous != null ? previous : 0;
+        this.writer.write(TICK_TYPE, new VarTickData(varbitChanges.drain(), varpChanges.drain()));
+    }
 
+    private void handleChange(int id, int value, int[] table, VarFilter filter, TickChanges changes, String type) {
+        var prevValue = table[id];
         if (prevValue != value) {
-            this.writer.write(type, new VarChangedData(id, prevValue, value));
+            // filtered vars are still tracked, so their first change after being let through has the right old value
+            table[id] = value;
+            if (!filter.test(id)) {
+                return;
+            }
+            if (perTick) {
+                changes.add(id, prevValue, value);
+            } else {
+                this.writer.write(type, new VarChangedData(id, prevValue, value));
+            }
+        }
+    }
+
+    private static int[] grow(int[] table, int id) {
+        // next power of two above id, unless that overflows
+        return Arrays.copyOf(table, Math.max(id + 1, Integer.highestOneBit(id) << 1));
+    }
+
+    /**
+     * Net changes of the current tick, as flat (id, first old value, last new value, number of changes) entries in the order
+     * the vars first changed. Only touched from the client thread.
+     */
+    private static class TickChanges {
+        private static final int STRIDE = 4;
+
+        /** Entry index + 1 of every id that changed this tick, 0 for the others */
+        private int[] entryById = new int[0];
+        private int[] entries = new int[STRIDE * 64];
+        private int size = 0;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void add(int id, int oldValue, int newValue) {
+            if (id >= entryById.length) {
+                entryById = grow(entryById, id);
+            }
+
+            var entry = entryById[id];
+            if (entry != 0) {
+                var i = (entry - 1) * STRIDE;
+                entries[i + 2] = newValue;
+                entries[i + 3]++;
+                return;
+            }
+
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            entries[size] = id;
+            entries[size + 1] = oldValue;
+            entries[size + 2] = newValue;
+            entries[size + 3] = 1;
+            size += STRIDE;
+            entryById[id] = size / STRIDE;
+        }
+
+        int[] drain() {
+            var drained = Arrays.copyOf(entries, size);
+            for (var i = 0; i < size; i += STRIDE) {
+                entryById[entries[i]] = 0;
+            }
+            size = 0;
+            return drained;
         }
     }
 
     @Value
-    private static class VarChangedData {
+    @JsonAdapter(VarChangedData.Adapter.class)
+    private static class VarChangedData implements BinaryRecord, Coalescable<VarChangedData> {
         int id;
         int oldValue;
         int newValue;
+
+        @Nonnull
+        @Override
+        public Object coalesceKey() {
+            return id;
+        }
+
+        @Nonnull
+        @Override
+        public VarChangedData coalesce(@Nonnull VarChangedData newer) {
+            return new VarChangedData(id, oldValue, newer.newValue);
+        }
+
+        @Override
+        public void writeBinary(@Nonnull BinaryOutput out) {
+            out.writeInt(id);
+            out.writeInt(oldValue);
+            out.writeInt(newValue);
+        }
+
+        private static class Adapter extends RecordTypeAdapter<VarChangedData> {
+            @Override
+            public void write(com.google.gson.stream.JsonWriter out, VarChangedData value) throws IOException {
+                out.beginObject();
+                out.name("id").value(value.id);
+                out.name("oldValue").value(value.oldValue);
+                out.name("newValue").value(value.newValue);
+                out.endObject();
+            }
+        }
+    }
+
+    @Value
+    @JsonAdapter(VarTickData.Adapter.class)
+    private static class VarTickData implements BinaryRecord {
+        int[] varbits;
+        int[] varps;
+
+        @Override
+        public void writeBinary(@Nonnull BinaryOutput out) {
+            out.writeIntArray(varbits);
+            out.writeIntArray(varps);
+        }
+
+        private static class Adapter extends RecordTypeAdapter<VarTickData> {
+            @Override
+            public void write(com.google.gson.stream.JsonWriter out, VarTickData value) throws IOException {
+                out.beginObject();
+                writeIntArray(out.name("varbits"), value.varbits);
+                writeIntArray(out.name("varps"), value.varps);
+                out.endObject();
+            }
+        }
     }
 }
@@ -0,0 +1,93 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import lombok.Getter;
+import lombok.Value;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fixed binary layouts of the high-volume record types.
+ * <p>
+ * The tag of a layout is stored in every record and must never change or be reused. Field names are only used to turn binary
+ * records back into the JSON the {@link RecordTypeAdapter} of the same data class writes, so they must match it.
+ */
+@Getter
+enum BinaryLayout {
+    VARBIT_CHANGED(1, Field.integer("id"), Field.integer("oldValue"), Field.integer("newValue")),
+    VARPLAYER_CHANGED(2, Field.integer("id"), Field.integer("oldValue"), Field.integer("newValue")),
+    CHAT(3, Field.string("type"), Field.string("name"), Field.string("message")),
+    /** No longer written, kept to convert older files */
+    INVENTORY_CHANGED(4, Field.intArray("oldInventory"), Field.intArray("oldQuantities"), Field.intArray("newInventory"), Field.intArray("newQuantities")),
+    VAR_TICK(5, Field.intArray("varbits"), Field.intArray("varps")),
+    ITEM_CONTAINER_CHANGED(6, Field.integer("container"), Field.intArray("slots")),
+    ITEM_CONTAINER_SNAPSHOT(7, Field.integer("container"), Field.intArray("ids"), Field.intArray("quantities"));
+
+    /**
+     * Tag of records whose type name and JSON data are embedded as-is
+     */
+    static final int JSON_TAG = 0;
+
+    private static final Map<String, BinaryLayout> BY_TYPE = new HashMap<>();
+    private static final BinaryLayout[] BY_TAG;
+
+    static {
+        var maxTag = 0;
+        for (var layout : values()) {
+            BY_TYPE.put(layout.name(), layout);
+            maxTag = Math.max(maxTag, layout.tag);
+        }
+        BY_TAG = new BinaryLayout[maxTag + 1];
+        for (var layout : values()) {
+            assert BY_TAG[layout.tag] == null : "duplicate tag " + layout.tag;
+            BY_TAG[layout.tag] = layout;
+        }
+    }
+
+    private final int tag;
+    private final Field[] fields;
+
+    BinaryLayout(int tag, Field... fields) {
+        this.tag = tag;
+        this.fields = fields;
+    }
+
+    @Nullable
+    static BinaryLayout forType(String type) {
+        return BY_TYPE.get(type);
+    }
+
+    @Nullable
+    static BinaryLayout forTag(int tag) {
+        return tag > 0 && tag < BY_TAG.length ? BY_TAG[tag] : null;
+    }
+
+    enum Kind {
+        INT,
+        STRING,
+        INT_ARRAY,
+    }
+
+    @Value
+    static class Field {
+        String name;
+        Kind kind;
+
+        static Field integer(String name) {
+            return new Field(name, Kind.INT);
+        }
+
+        static Field string(String name) {
+            return new Field(name, Kind.STRING);
+        }
+
+        static Field intArray(String name) {
+            return new Field(name, Kind.INT_ARRAY);
+        }
+    }
+}
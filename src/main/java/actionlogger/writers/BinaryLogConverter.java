@@ -0,0 +1,99 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import com.google.gson.Gson;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Converts binary segments back into the JSON lines the plugin writes in its default format, so existing tooling keeps working.
+ * <p>
+ * Usage: {@code java -cp actionlogger-all.jar actionlogger.writers.BinaryLogConverter <segment.bin[.gz]> [output.txt]}.
+ * Without an output file, the JSON lines are written to stdout.
+ */
+public final class BinaryLogConverter {
+    private BinaryLogConverter() {
+    }
+
+    /**
+     * Streams every record of the segment in {@code in} as a JSON line to {@code out}
+     *
+     * @param in  binary segment, optionally GZIP compressed
+     * @param out receives the JSON lines, not closed
+     * @return the number of records converted
+     */
+    public static long convert(@Nonnull Gson gson, @Nonnull InputStream in, @Nonnull OutputStream out) throws IOException {
+        var reader = new BinaryLogReader(decompress(in.markSupported() ? in : new BufferedInputStream(in)));
+        var buffer = new RecordBuffer(4096);
+        var json = new RecordJsonWriter(gson, buffer);
+        var count = 0L;
+
+        while (reader.next()) {
+            buffer.reset();
+            json.beginObject();
+            json.name(Payload.TICK_FIELD).value(reader.getTick());
+            json.name(Payload.TS_FIELD).value(reader.getPrecision().format(reader.getTimestamp()));
+            if (reader.getTickNanos() >= 0) {
+                json.name(Payload.NS_FIELD).value(reader.getTickNanos());
+            }
+            json.name(Payload.TYPE_FIELD).value(reader.getType());
+            json.name(Payload.DATA_FIELD);
+            reader.writeData(json);
+            json.endObject();
+            buffer.write('\n');
+            buffer.writeTo(out);
+            count++;
+        }
+
+        if (reader.isTruncated()) {
+            System.err.println("Warning: the last record of the segment was cut off and has been skipped");
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: BinaryLogConverter <segment.bin[.gz]> [output.txt]");
+            System.exit(2);
+            return;
+        }
+
+        var gson = new Gson();
+        try (var in = new BufferedInputStream(Files.newInputStream(Path.of(args[0])), 64 * 1024)) {
+            if (args.length == 2) {
+                try (var out = new BufferedOutputStream(Files.newOutputStream(Path.of(args[1])), 64 * 1024)) {
+                    convert(gson, in, out);
+                }
+            } else {
+                var out = new BufferedOutputStream(System.out, 64 * 1024);
+                convert(gson, in, out);
+                out.flush();
+            }
+        }
+    }
+
+    /**
+     * @param in stream that supports {@link InputStream#mark(int)}, so its first bytes can be peeked at
+     */
+    static InputStream decompress(@Nonnull InputStream in) throws IOException {
+        in.mark(2);
+        var b1 = in.read();
+        var b2 = in.read();
+        in.reset();
+        if (b1 == 0x1F && b2 == 0x8B) {
+            return new BufferedInputStream(new GZIPInputStream(in, 64 * 1024), 64 * 1024);
+        }
+        return in;
+    }
+}
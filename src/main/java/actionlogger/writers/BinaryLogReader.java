@@ -0,0 +1,376 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import lombok.Getter;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streams the records of a binary segment, see {@link BinaryRecordEncoder} for the format.
+ * <p>
+ * A record that was cut off, e.g. because the client was killed mid-write, ends the segment and is reported by {@link #isTruncated()}.
+ */
+public final class BinaryLogReader implements Closeable {
+    private final InputStream in;
+    private byte[] frame = new byte[256];
+    private int frameLength = 0;
+    private int pos = 0;
+    /**
+     * Offset of the next byte read from the stream
+     */
+    private long streamOffset;
+    /**
+     * Offset of the current record within the segment
+     */
+    @Getter
+    private long recordOffset = -1;
+
+    @Getter
+    private int tick = 0;
+    /**
+     * Epoch milliseconds
+     */
+    @Getter
+    private long timestamp = 0;
+    /**
+     * Nanoseconds between the start of the tick and the record, or -1 if not recorded
+     */
+    @Getter
+    private long tickNanos = -1;
+    @Getter
+    private String type = null;
+    private BinaryLayout layout = null;
+    /**
+     * Whether the fields of the current record haven't been read yet. They're still skipped through for the strings they
+     * add to the dictionary.
+     */
+    private boolean dataPending = false;
+    private final List<String> dictionary = new ArrayList<>();
+    @Getter
+    private boolean truncated = false;
+    private final int version;
+    /**
+     * Precision the plugin wrote JSON timestamps with when this segment was written
+     */
+    @Getter
+    private final TimestampPrecision precision;
+
+    /**
+     * @param in stream positioned at the start of a segment, ideally buffered
+     */
+    public BinaryLogReader(@Nonnull InputStream in) throws IOException {
+        this.in = in;
+
+        var header = new byte[BinaryRecordEncoder.MAGIC.length + 1];
+        this.streamOffset = header.length;
+        if (in.readNBytes(header, 0, header.length) != header.length
+            || !Arrays.equals(header, 0, BinaryRecordEncoder.MAGIC.length, BinaryRecordEncoder.MAGIC, 0, BinaryRecordEncoder.MAGIC.length)) {
+            throw new IOException("Not an ActionLogger binary segment");
+        }
+        this.version = header[header.length - 1];
+        if (this.version == 1) {
+            this.precision = TimestampPrecision.SECONDS;
+        } else if (this.version >= 2 && this.version <= BinaryRecordEncoder.VERSION) {
+            var flags = in.read();
+            if (flags < 0) {
+                throw new EOFException("Segment ends in its header");
+            }
+            this.streamOffset++;
+            this.precision = (flags & BinaryRecordEncoder.FLAG_MILLISECONDS) != 0 ? TimestampPrecision.MILLISECONDS : TimestampPrecision.SECONDS;
+        } else {
+            throw new IOException("Unsupported binary segment version " + this.version);
+        }
+    }
+
+    private BinaryLogReader(InputStream in, int version, TimestampPrecision precision, long offset) {
+        this.in = in;
+        this.version = version;
+        this.precision = precision;
+        this.streamOffset = offset;
+    }
+
+    /**
+     * Opens a segment at a checkpoint of its {@link SegmentIndex}
+     *
+     * @param checkpoint offset of a checkpoint, as returned by {@link SegmentIndex#findTick(int)} or
+     *                   {@link SegmentIndex#checkpointBefore(long)}
+     */
+    @Nonnull
+    public static BinaryLogReader open(@Nonnull Path segment, long checkpoint) throws IOException {
+        try (var header = new BinaryLogReader(SegmentIndex.open(segment, 0))) {
+            return new BinaryLogReader(SegmentIndex.open(segment, checkpoint), header.version, header.precision, checkpoint);
+        }
+    }
+
+    /**
+     * Advances to the first record at or after the given offset
+     *
+     * @return false at the end of the segment
+     */
+    public boolean skipTo(long offset) throws IOException {
+        while (this.recordOffset < offset) {
+            if (!this.next()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Advances to the next record
+     *
+     * @return false at the end of the segment
+     */
+    public boolean next() throws IOException {
+        if (this.dataPending) {
+            this.skipData();
+        }
+
+        var recordOffset = this.streamOffset;
+        long length;
+        try {
+            length = this.readStreamVarint();
+        } catch (EOFException e) {
+            return false;
+        }
+        if (length == 0) {
+            // zero padding after the last record
+            return false;
+        }
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IOException("Corrupt record length " + length);
+        }
+
+        var frameLength = (int) length;
+        if (this.frame.length < frameLength) {
+            this.frame = new byte[Math.max(frameLength, this.frame.length << 1)];
+        }
+        if (this.in.readNBytes(this.frame, 0, frameLength) != frameLength) {
+            this.truncated = true;
+            return false;
+        }
+        this.streamOffset += frameLength;
+        this.recordOffset = recordOffset;
+        this.frameLength = frameLength;
+        this.pos = 0;
+
+        var tag = this.frame[this.pos++] & 0xFF;
+        if ((tag & BinaryRecordEncoder.TAG_CHECKPOINT) != 0) {
+            this.tick = 0;
+            this.timestamp = 0;
+            this.dictionary.clear();
+        }
+        this.tick += (int) this.readZigZag();
+        this.timestamp += this.readZigZag();
+        this.tickNanos = (tag & BinaryRecordEncoder.TAG_HAS_TICK_NANOS) != 0 ? this.readVarint() : -1;
+        tag &= BinaryRecordEncoder.TAG_MASK;
+        if (tag == BinaryLayout.JSON_TAG) {
+            this.layout = null;
+            this.type = this.readString();
+        } else {
+            this.layout = BinaryLayout.forTag(tag);
+            if (this.layout == null) {
+                throw new IOException("Unknown record tag " + tag);
+            }
+            this.type = this.layout.name();
+            this.dataPending = this.version >= 3;
+        }
+        return true;
+    }
+
+    /**
+     * Writes the data of the current record as the JSON its tracker would have written
+     */
+    public void writeData(@Nonnull JsonWriter out) throws IOException {
+        this.dataPending = false;
+        if (this.layout == null) {
+            var json = new String(this.frame, this.pos, this.frameLength - this.pos, StandardCharsets.UTF_8);
+            out.jsonValue(json);
+            return;
+        }
+
+        out.beginObject();
+        for (var field : this.layout.getFields()) {
+            out.name(field.getName());
+            switch (field.getKind()) {
+                case INT:
+                    out.value(this.readZigZag());
+                    break;
+
+                case STRING:
+                    out.value(this.readString());
+                    break;
+
+                case INT_ARRAY:
+                    var length = this.readVarint();
+                    if (length == 0) {
+                        out.nullValue();
+                        break;
+                    }
+                    out.beginArray();
+                    for (var i = 1; i < length; i++) {
+                        out.value(this.readZigZag());
+                    }
+                    out.endArray();
+                    break;
+            }
+        }
+        out.endObject();
+    }
+
+    /**
+     * Reads the data of the current record as the JSON tree its tracker would have written
+     */
+    @Nonnull
+    public JsonElement readData() throws IOException {
+        this.dataPending = false;
+        if (this.layout == null) {
+            var json = new String(this.frame, this.pos, this.frameLength - this.pos, StandardCharsets.UTF_8);
+            return JsonParser.parseString(json);
+        }
+
+        var data = new JsonObject();
+        for (var field : this.layout.getFields()) {
+            switch (field.getKind()) {
+                case INT:
+                    data.addProperty(field.getName(), this.readZigZag());
+                    break;
+
+                case STRING:
+                    data.addProperty(field.getName(), this.readString());
+                    break;
+
+                case INT_ARRAY:
+                    var length = this.readVarint();
+                    if (length == 0) {
+                        data.add(field.getName(), JsonNull.INSTANCE);
+                        break;
+                    }
+                    var array = new JsonArray((int) Math.min(length - 1, 1024));
+                    for (var i = 1; i < length; i++) {
+                        array.add(this.readZigZag());
+                    }
+                    data.add(field.getName(), array);
+                    break;
+            }
+        }
+        return data;
+    }
+
+    private void skipData() throws IOException {
+        this.dataPending = false;
+        for (var field : this.layout.getFields()) {
+            switch (field.getKind()) {
+                case INT:
+                    this.readVarint();
+                    break;
+
+                case STRING:
+                    this.readString();
+                    break;
+
+                case INT_ARRAY:
+                    var length = this.readVarint();
+                    for (var i = 1; i < length; i++) {
+                        this.readVarint();
+                    }
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+
+    private long readStreamVarint() throws IOException {
+        long value = 0;
+        for (var shift = 0; shift < 64; shift += 7) {
+            var b = this.in.read();
+            if (b < 0) {
+                if (shift == 0) {
+                    throw new EOFException();
+                }
+                this.truncated = true;
+                return 0;
+            }
+            this.streamOffset++;
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (var shift = 0; shift < 64; shift += 7) {
+            if (this.pos >= this.frameLength) {
+                throw new IOException("Record ends in the middle of a field");
+            }
+            var b = this.frame[this.pos++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private long readZigZag() throws IOException {
+        var value = this.readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private String readString() throws IOException {
+        var value = this.readVarint();
+        if (value == 0) {
+            return null;
+        }
+        if (this.version < 3) {
+            return this.readUtf8(value - 1);
+        }
+        if ((value & 1) == 0) {
+            var id = value / 2 - 1;
+            if (id >= this.dictionary.size()) {
+                throw new IOException("Unknown string " + id);
+            }
+            return this.dictionary.get((int) id);
+        }
+
+        var string = this.readUtf8(value >>> 1);
+        if (this.dictionary.size() < BinaryRecordEncoder.MAX_DICTIONARY_SIZE) {
+            this.dictionary.add(string);
+        }
+        return string;
+    }
+
+    private String readUtf8(long length) throws IOException {
+        if (length > this.frameLength - this.pos) {
+            throw new IOException("Record ends in the middle of a field");
+        }
+        var value = new String(this.frame, this.pos, (int) length, StandardCharsets.UTF_8);
+        this.pos += (int) length;
+        return value;
+    }
+}
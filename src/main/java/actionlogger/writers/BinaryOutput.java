@@ -0,0 +1,27 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import javax.annotation.Nullable;
+
+/**
+ * Sink for the fields of a {@link BinaryRecord}
+ */
+public interface BinaryOutput {
+    /**
+     * Writes a zigzag varint, so small negative values like -1 stay small too
+     */
+    void writeInt(int value);
+
+    /**
+     * Writes a varint length (+1, so 0 means null) followed by the UTF-8 bytes
+     */
+    void writeString(@Nullable String value);
+
+    /**
+     * Writes a varint length (+1, so 0 means null) followed by one {@link #writeInt(int)} per element
+     */
+    void writeIntArray(@Nullable int[] values);
+}
@@ -0,0 +1,18 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Record data with a fixed binary layout. Records of types without a {@link BinaryLayout}, or whose data doesn't implement
+ * this, are embedded as JSON in binary segments.
+ */
+public interface BinaryRecord {
+    /**
+     * Writes every field of the {@link BinaryLayout} registered for this record's type, in order
+     */
+    void writeBinary(@Nonnull BinaryOutput out);
+}
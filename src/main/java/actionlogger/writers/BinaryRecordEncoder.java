@@ -0,0 +1,154 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import com.google.gson.Gson;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encodes records in the compact binary segment format:
+ * <pre>
+ * segment := "ALOG" version:u8 flags:u8 record*
+ * record  := length:varint tag:u8 tickDelta:zigzag timestampDelta:zigzag [tickNanos:varint] body
+ * body    := fields of the {@link BinaryLayout} with that tag
+ *          | type:string json:u8* (tag 0)
+ * string  := 0 (null) | (2 * byteLength + 1):varint utf8:u8* | (2 * id + 2):varint
+ * </pre>
+ * The length covers everything after itself and is never 0, so zero padding after the last record reads as the end of the segment.
+ * Tick and timestamp (epoch milliseconds) are deltas to the previous record in the segment, which makes them a single byte for most records.
+ * Strings are dictionary encoded: the first occurrence is written in full and gets the next id, later ones are just that id.
+ * Deltas and the dictionary restart at every record with {@link #TAG_CHECKPOINT} set in its tag, which is every checkpoint of the
+ * {@link SegmentIndex}. The high bit of the tag is set if the record has a tick offset. The flags of the segment hold the {@link TimestampPrecision}
+ * its records are converted with. Version 1 segments have no flags and are always converted with seconds, and versions before 3
+ * write every string in full as (byteLength + 1):varint utf8:u8*.
+ * Use {@link BinaryLogConverter} to turn a binary segment back into JSON lines.
+ */
+final class BinaryRecordEncoder implements RecordEncoder {
+    static final byte[] MAGIC = {'A', 'L', 'O', 'G'};
+    static final int VERSION = 3;
+    static final int TAG_MASK = 0x3F;
+    static final int TAG_CHECKPOINT = 0x40;
+    static final int TAG_HAS_TICK_NANOS = 0x80;
+    static final int FLAG_MILLISECONDS = 0x01;
+    /**
+     * Strings past this many distinct ones since the last checkpoint are written in full every time
+     */
+    static final int MAX_DICTIONARY_SIZE = 4096;
+
+    private final JsonRecordEncoder jsonEncoder;
+    private final RecordBuffer body = new RecordBuffer(256);
+    private final RecordBuffer buffer = new RecordBuffer(256);
+    private final BinaryOutput fields = new DictionaryOutput();
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private int lastTick = 0;
+    private long lastTimestamp = 0;
+    /**
+     * Set while a record is being encoded, or after the last record couldn't be written, so the next record starts over
+     * like at a checkpoint instead of relying on deltas and dictionary entries the reader never saw
+     */
+    private boolean restart = true;
+
+    BinaryRecordEncoder(@Nonnull Gson gson) {
+        this.jsonEncoder = new JsonRecordEncoder(gson);
+    }
+
+    @Override
+    public RecordBuffer startSegment(@Nonnull WriterSettings settings) {
+        this.restart = true;
+
+        this.buffer.reset();
+        this.buffer.write(MAGIC, 0, MAGIC.length);
+        this.buffer.write(VERSION);
+        this.buffer.write(settings.getTimestampPrecision() == TimestampPrecision.MILLISECONDS ? FLAG_MILLISECONDS : 0);
+        return this.buffer;
+    }
+
+    @Override
+    public RecordBuffer encode(Payload payload, boolean checkpoint) throws IOException {
+        var body = this.body;
+        body.reset();
+
+        var restart = checkpoint || this.restart;
+        this.restart = true;
+        if (restart) {
+            this.lastTick = 0;
+            this.lastTimestamp = 0;
+            this.dictionary.clear();
+        }
+
+        var data = payload.getData();
+        var layout = BinaryLayout.forType(payload.getType());
+        var fixed = layout != null && data instanceof BinaryRecord;
+        var tickNanos = payload.getTickNanos();
+        body.write((fixed ? layout.getTag() : BinaryLayout.JSON_TAG) | (restart ? TAG_CHECKPOINT : 0) | (tickNanos >= 0 ? TAG_HAS_TICK_NANOS : 0));
+        body.writeZigZag(payload.getTick() - (long) this.lastTick);
+        body.writeZigZag(payload.getTimestamp() - this.lastTimestamp);
+        if (tickNanos >= 0) {
+            body.writeVarint(tickNanos);
+        }
+        if (fixed) {
+            ((BinaryRecord) data).writeBinary(this.fields);
+        } else {
+            this.fields.writeString(payload.getType());
+            var json = this.jsonEncoder.encodeData(data);
+            body.write(json.array(), 0, json.size());
+        }
+
+        this.lastTick = payload.getTick();
+        this.lastTimestamp = payload.getTimestamp();
+        this.restart = false;
+
+        var buffer = this.buffer;
+        buffer.reset();
+        buffer.writeVarint(body.size());
+        buffer.write(body.array(), 0, body.size());
+        return buffer;
+    }
+
+    @Override
+    public void discardLast() {
+        this.restart = true;
+    }
+
+    /**
+     * Writes fields into the record body, with strings looked up in the dictionary
+     */
+    private final class DictionaryOutput implements BinaryOutput {
+        @Override
+        public void writeInt(int value) {
+            body.writeInt(value);
+        }
+
+        @Override
+        public void writeString(@Nullable String value) {
+            if (value == null) {
+                body.writeVarint(0);
+                return;
+            }
+
+            var id = dictionary.get(value);
+            if (id != null) {
+                body.writeVarint(2L * id + 2);
+                return;
+            }
+
+            body.writeVarint(2L * RecordBuffer.utf8Length(value) + 1);
+            body.writeUtf8(value);
+            if (dictionary.size() < MAX_DICTIONARY_SIZE) {
+                dictionary.put(value, dictionary.size());
+            }
+        }
+
+        @Override
+        public void writeIntArray(@Nullable int[] values) {
+            body.writeIntArray(values);
+        }
+    }
+}
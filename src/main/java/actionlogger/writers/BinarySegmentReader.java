@@ -0,0 +1,61 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+
+/**
+ * Adapts a {@link BinaryLogReader} to a {@link SegmentReader}. The fields of records that are filtered out by their type or
+ * tick are skipped without being decoded.
+ */
+final class BinarySegmentReader implements SegmentReader {
+    private final BinaryLogReader reader;
+    private final LogQuery query;
+    /**
+     * Whether ticks never decrease within the segment, so reading can stop after the tick range
+     */
+    private final boolean tickOrdered;
+
+    BinarySegmentReader(@Nonnull BinaryLogReader reader, @Nonnull LogQuery query, boolean tickOrdered) {
+        this.reader = reader;
+        this.query = query;
+        this.tickOrdered = tickOrdered;
+    }
+
+    @Nullable
+    @Override
+    public Payload next() throws IOException {
+        var reader = this.reader;
+        while (reader.next()) {
+            var tick = reader.getTick();
+            if (this.tickOrdered && tick > this.query.getToTick()) {
+                return null;
+            }
+            if (!this.query.matches(tick, reader.getType())) {
+                continue;
+            }
+
+            var timestamp = reader.getTimestamp();
+            var payload = new Payload(tick, timestamp, reader.getPrecision().format(timestamp), reader.getTickNanos(),
+                reader.getType(), reader.readData(), -1);
+            if (this.query.matches(payload)) {
+                return payload;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isTruncated() {
+        return this.reader.isTruncated();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+}
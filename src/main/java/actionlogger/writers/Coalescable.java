@@ -0,0 +1,25 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Record data that can be merged with a newer record of the same type and key without losing its net effect,
+ * see {@link OverflowPolicy#COALESCE}
+ */
+public interface Coalescable<T extends Coalescable<T>> {
+    /**
+     * Records of the same type are only merged if their keys are equal
+     */
+    @Nonnull
+    Object coalesceKey();
+
+    /**
+     * @return data with the combined effect of this record followed by {@code newer}
+     */
+    @Nonnull
+    T coalesce(@Nonnull T newer);
+}
@@ -0,0 +1,38 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+@RequiredArgsConstructor
+public enum Compression {
+    NONE("None", ""),
+    GZIP("GZIP", ".gz");
+
+    private final String name;
+    @Getter
+    private final String extension;
+
+    OutputStream wrap(OutputStream out) throws IOException {
+        switch (this) {
+            case GZIP:
+                // sync flush, so every flushed batch can be decompressed even if the segment is never finished
+                return new GZIPOutputStream(out, 64 * 1024, true);
+            case NONE:
+            default:
+                return out;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
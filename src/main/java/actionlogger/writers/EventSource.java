@@ -0,0 +1,26 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Trackers whose incoming events are counted in the {@link Metrics}, whether they lead to a record or not
+ */
+@RequiredArgsConstructor
+public enum EventSource {
+    VARS("Vars"),
+    ITEM_CONTAINERS("Item containers"),
+    CHAT("Chat"),
+    DIALOGUE("Dialogue"),
+    ANIMATION("Animation");
+
+    private final String name;
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
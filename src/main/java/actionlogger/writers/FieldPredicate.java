@@ -0,0 +1,165 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * A condition on one field of a record, written as {@code <path><operator><value>}, e.g. {@code data.name=Bob} or
+ * {@code data.varbitId>=4000}.
+ * <p>
+ * The path is {@code tick}, {@code ts}, {@code ns}, {@code type}, or {@code data} followed by object keys and array
+ * indices separated by dots. Values are compared as numbers when both sides are numbers, and as strings otherwise.
+ * A record without the field never matches.
+ */
+public final class FieldPredicate implements Predicate<Payload> {
+    private static final Pattern SYNTAX = Pattern.compile("^([\\w.]+)(!=|<=|>=|=|<|>|~)(.*)$");
+
+    @RequiredArgsConstructor
+    public enum Operator {
+        EQUALS("="),
+        NOT_EQUALS("!="),
+        LESS("<"),
+        LESS_OR_EQUAL("<="),
+        GREATER(">"),
+        GREATER_OR_EQUAL(">="),
+        CONTAINS("~");
+
+        @Getter
+        private final String symbol;
+
+        @Override
+        public String toString() {
+            return symbol;
+        }
+    }
+
+    private final String[] path;
+    private final Operator operator;
+    private final String value;
+    /**
+     * The value as a number, or NaN if it isn't one
+     */
+    private final double number;
+
+    public FieldPredicate(@Nonnull String path, @Nonnull Operator operator, @Nonnull String value) {
+        this.path = path.split("\\.");
+        this.operator = operator;
+        this.value = value;
+        this.number = parseNumber(value);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the expression isn't a valid predicate
+     */
+    @Nonnull
+    public static FieldPredicate parse(@Nonnull String expression) {
+        var matcher = SYNTAX.matcher(expression);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Not a field predicate: " + expression);
+        }
+        for (var operator : Operator.values()) {
+            if (operator.symbol.equals(matcher.group(2))) {
+                return new FieldPredicate(matcher.group(1), operator, matcher.group(3));
+            }
+        }
+        throw new IllegalArgumentException("Unknown operator " + matcher.group(2));
+    }
+
+    @Override
+    public boolean test(Payload payload) {
+        var field = this.resolve(payload);
+        if (field == null || !field.isJsonPrimitive()) {
+            return false;
+        }
+
+        var primitive = field.getAsJsonPrimitive();
+        int comparison;
+        if (primitive.isNumber() && !Double.isNaN(this.number)) {
+            comparison = Double.compare(primitive.getAsDouble(), this.number);
+        } else {
+            var string = primitive.getAsString();
+            if (this.operator == Operator.CONTAINS) {
+                return string.contains(this.value);
+            }
+            comparison = string.compareTo(this.value);
+        }
+
+        switch (this.operator) {
+            case EQUALS:
+                return comparison == 0;
+            case NOT_EQUALS:
+                return comparison != 0;
+            case LESS:
+                return comparison < 0;
+            case LESS_OR_EQUAL:
+                return comparison <= 0;
+            case GREATER:
+                return comparison > 0;
+            case GREATER_OR_EQUAL:
+                return comparison >= 0;
+            case CONTAINS:
+            default:
+                return primitive.getAsString().contains(this.value);
+        }
+    }
+
+    @Nullable
+    private JsonElement resolve(Payload payload) {
+        switch (this.path[0]) {
+            case Payload.TICK_FIELD:
+                return this.path.length == 1 ? new JsonPrimitive(payload.getTick()) : null;
+            case Payload.TS_FIELD:
+                return this.path.length == 1 && payload.getTs() != null ? new JsonPrimitive(payload.getTs()) : null;
+            case Payload.NS_FIELD:
+                return this.path.length == 1 && payload.getTickNanos() >= 0 ? new JsonPrimitive(payload.getTickNanos()) : null;
+            case Payload.TYPE_FIELD:
+                return this.path.length == 1 ? new JsonPrimitive(payload.getType()) : null;
+            case Payload.DATA_FIELD:
+                break;
+            default:
+                return null;
+        }
+
+        if (!(payload.getData() instanceof JsonElement)) {
+            return null;
+        }
+        var element = (JsonElement) payload.getData();
+        for (var i = 1; i < this.path.length && element != null; i++) {
+            var key = this.path[i];
+            if (element.isJsonObject()) {
+                element = element.getAsJsonObject().get(key);
+            } else if (element.isJsonArray()) {
+                var index = (int) parseNumber(key);
+                var array = element.getAsJsonArray();
+                element = index >= 0 && index < array.size() && String.valueOf(index).equals(key) ? array.get(index) : null;
+            } else {
+                return null;
+            }
+        }
+        return element;
+    }
+
+    private static double parseNumber(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.join(".", this.path) + this.operator + this.value;
+    }
+}
@@ -0,0 +1,30 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public enum FlushPolicy {
+    /**
+     * Flush after every record; nothing is ever left in the in-memory batch
+     */
+    EVERY_RECORD("Every record"),
+    /**
+     * Flush at the end of every game tick, or earlier if a batch limit is reached
+     */
+    PER_TICK("Per tick"),
+    /**
+     * Flush when a batch limit or the flush interval is reached
+     */
+    BATCHED("Batched");
+
+    private final String name;
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
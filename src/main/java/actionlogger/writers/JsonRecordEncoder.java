@@ -0,0 +1,126 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Encodes records as JSON lines.
+ * <p>
+ * Records are streamed into a reused {@link RecordBuffer} through a {@link RecordJsonWriter}, without building an intermediate
+ * JSON string. Data classes of high-volume records carry a hand-written {@link RecordTypeAdapter}.
+ */
+final class JsonRecordEncoder implements RecordEncoder {
+    private final Gson gson;
+    private final RecordBuffer buffer = new RecordBuffer(4096);
+    private final Map<Class<?>, TypeAdapter<Object>> adapters = new IdentityHashMap<>();
+    private RecordJsonWriter out;
+
+    JsonRecordEncoder(@Nonnull Gson gson) {
+        this.gson = gson;
+        this.out = new RecordJsonWriter(gson, this.buffer);
+    }
+
+    @Override
+    public RecordBuffer startSegment(@Nonnull WriterSettings settings) {
+        this.buffer.reset();
+        return this.buffer;
+    }
+
+    @Override
+    public RecordBuffer encode(Payload payload, boolean checkpoint) throws IOException {
+        this.buffer.reset();
+        try {
+            var out = this.out;
+            out.beginObject();
+            out.name(Payload.TICK_FIELD).value(payload.getTick());
+            out.name(Payload.TS_FIELD).value(payload.getTs());
+            if (payload.getTickNanos() >= 0) {
+                out.name(Payload.NS_FIELD).value(payload.getTickNanos());
+            }
+            out.name(Payload.TYPE_FIELD).value(payload.getType());
+            out.name(Payload.DATA_FIELD);
+            this.writeData(payload.getData());
+            out.endObject();
+        } catch (IOException | RuntimeException e) {
+            this.recover();
+            throw e;
+        }
+        this.buffer.write('\n');
+        return this.buffer;
+    }
+
+    /**
+     * Encodes the records of a tick as one line, with the tick and timestamp written once for all of them
+     */
+    RecordBuffer encodeFrame(@Nonnull TickFrame frame) throws IOException {
+        this.buffer.reset();
+        try {
+            var out = this.out;
+            out.beginObject();
+            out.name(Payload.TICK_FIELD).value(frame.getTick());
+            out.name(Payload.TS_FIELD).value(frame.getTs());
+            out.name(Payload.RECORDS_FIELD);
+            out.beginArray();
+            for (var i = 0; i < frame.getSize(); i++) {
+                out.beginObject();
+                if (frame.getTickNanos(i) >= 0) {
+                    out.name(Payload.NS_FIELD).value(frame.getTickNanos(i));
+                }
+                out.name(Payload.TYPE_FIELD).value(frame.getType(i));
+                out.name(Payload.DATA_FIELD);
+                this.writeData(frame.getData(i));
+                out.endObject();
+            }
+            out.endArray();
+            out.endObject();
+        } catch (IOException | RuntimeException e) {
+            this.recover();
+            throw e;
+        }
+        this.buffer.write('\n');
+        return this.buffer;
+    }
+
+    /**
+     * Encodes only the data of a record, for formats that embed JSON
+     */
+    RecordBuffer encodeData(@Nonnull Object data) throws IOException {
+        this.buffer.reset();
+        try {
+            this.writeData(data);
+        } catch (IOException | RuntimeException e) {
+            this.recover();
+            throw e;
+        }
+        return this.buffer;
+    }
+
+    private void writeData(Object data) throws IOException {
+        this.adapterFor(data.getClass()).write(this.out, data);
+    }
+
+    private void recover() {
+        // the JSON writer is left in the middle of a record, start over with a fresh one
+        this.out = new RecordJsonWriter(this.gson, this.buffer);
+    }
+
+    @SuppressWarnings("unchecked")
+    private TypeAdapter<Object> adapterFor(Class<?> type) {
+        // Gson#getAdapter allocates a TypeToken per lookup, so keep our own identity cache
+        var adapter = this.adapters.get(type);
+        if (adapter == null) {
+            adapter = (TypeAdapter<Object>) this.gson.getAdapter(type);
+            this.adapters.put(type, adapter);
+        }
+        return adapter;
+    }
+}
@@ -0,0 +1,210 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Streams the records of a JSON lines segment with a pull parser, one record at a time.
+ * <p>
+ * The envelope fields come before {@code data} in every record the plugin writes, so the data of a record that's filtered
+ * out by its type or tick is skipped without building it.
+ * <p>
+ * Lines written as a {@link TickFrame} are split back into their records, which share the tick and timestamp of the frame.
+ */
+final class JsonSegmentReader implements SegmentReader {
+    private final JsonReader in;
+    private final LogQuery query;
+    /**
+     * Whether ticks never decrease within the segment, so reading can stop after the tick range
+     */
+    private final boolean tickOrdered;
+    /**
+     * Matching records of the last frame that haven't been returned yet
+     */
+    private final Deque<Payload> framed = new ArrayDeque<>();
+    private boolean done = false;
+    private boolean truncated = false;
+
+    /**
+     * @param in uncompressed segment, positioned at the start of a line
+     */
+    JsonSegmentReader(@Nonnull InputStream in, @Nonnull LogQuery query, boolean tickOrdered) {
+        this.in = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        // one top-level value per line
+        this.in.setLenient(true);
+        this.query = query;
+        this.tickOrdered = tickOrdered;
+    }
+
+    @Nullable
+    @Override
+    public Payload next() throws IOException {
+        while (true) {
+            var payload = this.framed.poll();
+            if (payload != null) {
+                return payload;
+            }
+            if (this.done) {
+                return null;
+            }
+
+            try {
+                if (this.in.peek() == JsonToken.END_DOCUMENT) {
+                    this.done = true;
+                    continue;
+                }
+                payload = this.readLine();
+                if (payload != null) {
+                    return payload;
+                }
+            } catch (EOFException | MalformedJsonException | IllegalStateException | NumberFormatException | DateTimeParseException e) {
+                // a torn last line, or the zero padding of a memory-mapped segment that wasn't closed
+                this.truncated = true;
+                this.done = true;
+            }
+        }
+    }
+
+    /**
+     * Reads a record, or the records of a frame into {@link #framed}
+     *
+     * @return the record, or null if it doesn't match or the line was a frame
+     */
+    private Payload readLine() throws IOException {
+        var record = new Fields();
+        this.in.beginObject();
+        while (this.in.hasNext()) {
+            var name = this.in.nextName();
+            if (Payload.RECORDS_FIELD.equals(name)) {
+                this.readFrame(record);
+            } else {
+                this.readField(record, name);
+            }
+        }
+        this.in.endObject();
+
+        if (this.tickOrdered && record.tick > this.query.getToTick()) {
+            this.done = true;
+            return null;
+        }
+        return this.toPayload(record);
+    }
+
+    /**
+     * Reads the records of a frame, whose tick and timestamp have been read into {@code frame} already
+     */
+    private void readFrame(Fields frame) throws IOException {
+        if (!this.query.matchesTick(frame.tick)) {
+            this.in.skipValue();
+            return;
+        }
+
+        this.in.beginArray();
+        while (this.in.hasNext()) {
+            var record = new Fields();
+            record.tick = frame.tick;
+            record.ts = frame.ts;
+            this.in.beginObject();
+            while (this.in.hasNext()) {
+                this.readField(record, this.in.nextName());
+            }
+            this.in.endObject();
+
+            var payload = this.toPayload(record);
+            if (payload != null) {
+                this.framed.add(payload);
+            }
+        }
+        this.in.endArray();
+    }
+
+    /**
+     * Reads the value of the field with the name that was just read
+     */
+    private void readField(Fields record, String name) throws IOException {
+        switch (name) {
+            case Payload.TICK_FIELD:
+                record.tick = this.in.nextInt();
+                break;
+
+            case Payload.TS_FIELD:
+                record.ts = this.in.nextString();
+                break;
+
+            case Payload.NS_FIELD:
+                record.tickNanos = this.in.nextLong();
+                break;
+
+            case Payload.TYPE_FIELD:
+                record.type = this.in.nextString();
+                break;
+
+            case Payload.DATA_FIELD:
+                if (record.type != null && !this.query.matches(record.tick, record.type)) {
+                    this.in.skipValue();
+                } else {
+                    record.data = JsonParser.parseReader(this.in);
+                }
+                break;
+
+            default:
+                this.in.skipValue();
+                break;
+        }
+    }
+
+    /**
+     * @return the record, or null if it doesn't match
+     */
+    private Payload toPayload(Fields record) {
+        if (record.type == null || !this.query.matches(record.tick, record.type)) {
+            return null;
+        }
+
+        var timestamp = record.ts != null ? Instant.parse(record.ts).toEpochMilli() : 0;
+        var data = record.data != null ? record.data : JsonNull.INSTANCE;
+        var payload = new Payload(record.tick, timestamp, record.ts, record.tickNanos, record.type, data, -1);
+        return this.query.matches(payload) ? payload : null;
+    }
+
+    @Override
+    public boolean isTruncated() {
+        return this.truncated;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+
+    /**
+     * Fields of the record being read
+     */
+    private static final class Fields {
+        int tick = 0;
+        String ts = null;
+        long tickNanos = -1;
+        String type = null;
+        JsonElement data = null;
+    }
+}
@@ -4,67 +4,164 @@
 
 package actionlogger.writers;
 
-import actionlogger.Utils;
 import com.google.gson.Gson;
+import lombok.Getter;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
+import net.runelite.api.events.GameTick;
 import net.runelite.client.RuneLite;
+import net.runelite.client.eventbus.Subscribe;
 import org.apache.commons.lang3.tuple.Pair;
 
 import javax.annotation.Nonnull;
-import java.io.BufferedWriter;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntSupplier;
 
+/**
+ * Writes records to disk on a dedicated writer thread.
+ * <p>
+ * Records and control commands (restart, flush, close) are handed to the writer thread through a bounded lock-free queue,
+ * so the client thread never touches the disk and never waits on other plugins' tasks.
+ * <p>
+ * Records are encoded by the {@link RecordEncoder} of the configured {@link LogFormat}.
+ * <p>
+ * With tick frames enabled, records are gathered into a {@link TickFrame} instead, which is handed to the writer thread as
+ * a single queue item at the end of the game tick and written as one line with a single tick and timestamp.
+ * <p>
+ * When the queue is full, the configured {@link OverflowPolicy} decides what happens to new records. Records that are lost
+ * are counted per type and reported in a LOSS record every few seconds and before a segment is closed.
+ * <p>
+ * The current {@link Segment} is rotated on request or once it exceeds the configured size, age or tick count.
+ * Rotated segments are finalized (flushed, compression finished, closed) on a background thread.
+ * Flushed data is forced to the storage device according to the {@link SyncPolicy}, and a segment that wasn't closed properly
+ * the last time is repaired by {@link SegmentRecovery} once the writer starts.
+ */
 @Slf4j
 public class JsonWriter implements Closeable {
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long LOSS_REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final long ROTATE_RETRY_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final String LOSS_TYPE = "LOSS";
+    private static final String RECOVERED_TYPE = "RECOVERED";
+    private static final String METRICS_TYPE = "METRICS";
+    /**
+     * A frame is handed over early once it holds this many records
+     */
+    private static final int MAX_FRAME_RECORDS = 4096;
+    /**
+     * A frame is only written before its tick ends once no tick has ended for this long, i.e. clearly more than a game tick
+     */
+    private static final long STALE_FRAME_NANOS = TimeUnit.MILLISECONDS.toNanos(2 * 600);
+
     private final Gson gson;
-    private final Client client;
-    private final ExecutorService executor;
+    private final IntSupplier tickCount;
     private final File dir;
-    private Path path = null;
-    private BufferedWriter fh = null;
+    private final MpscQueue<Object> queue;
+    private final Thread thread;
+    private final ExecutorService finalizer;
+    private final Runnable flushCommand = this::flushQuietly;
+    private final CompletableFuture<Void> closed = new CompletableFuture<>();
+    // when the last frame was handed over at the end of a tick
+    private volatile long lastTickNanos = System.nanoTime();
+    private final AtomicLong droppedRecords = new AtomicLong();
+    private final TickClock clock = new TickClock();
+    private final Map<String, LossCounters> losses = new ConcurrentHashMap<>();
+    @Getter
+    private final Metrics metrics = new Metrics();
+    // records held back by OverflowPolicy.COALESCE, in the order they were first held back. Guarded by itself.
+    private final Map<OverflowKey, Payload> overflow = new LinkedHashMap<>();
+    // records of the current tick when tick frames are enabled, reused between ticks. Guarded by itself.
+    private final TickFrame frame = new TickFrame();
+    private volatile boolean overflowing = false;
+    private volatile WriterSettings settings;
+    private volatile boolean parked = false;
+    private volatile boolean closing = false;
+
+    // Only accessed from the writer thread
+    private final JsonRecordEncoder jsonEncoder;
+    private BinaryRecordEncoder binaryEncoder = null;
+    private RecordEncoder encoder;
+    private Segment segment = null;
+    private boolean stopped = false;
+    private int lastRecordTick = 0;
+    private int pendingRecords = 0;
+    private long pendingBytes = 0;
+    private long batchDeadline = 0;
+    private long nextLossReport = 0;
+    private long nextMetricsReport = System.nanoTime();
+    private long batchOldestNanos = 0;
+    private boolean unsynced = false;
+    private long lastSync = 0;
+    private boolean rotateFailing = false;
+    private long rotateRetryAt = 0;
+
+    public JsonWriter(Gson gson, Client client, WriterSettings settings) {
+        this(gson, client::getTickCount, settings, new File(RuneLite.RUNELITE_DIR, "action-logger"));
+    }
 
-    public JsonWriter(Gson gson, Client client, ExecutorService executor) {
+    public JsonWriter(Gson gson, IntSupplier tickCount, WriterSettings settings, File dir) {
         this.gson = gson;
-        this.client = client;
-        this.executor = executor;
+        this.tickCount = tickCount;
+        this.settings = settings;
+        this.queue = new MpscQueue<>(settings.getQueueCapacity());
+        this.thread = new Thread(this::run, "ActionLogger-writer");
+        this.thread.setDaemon(true);
+        this.finalizer = Executors.newSingleThreadExecutor(r -> {
+            var t = new Thread(r, "ActionLogger-finalizer");
+            t.setDaemon(true);
+            return t;
+        });
+        this.jsonEncoder = new JsonRecordEncoder(gson);
+        this.encoder = this.jsonEncoder;
 
-        dir = new File(RuneLite.RUNELITE_DIR, "action-logger");
+        this.dir = dir;
         //noinspection ResultOfMethodCallIgnored
         dir.mkdir();
 
         this.restartFile();
+        this.enqueueCommand(this::recoverPreviousSegment);
+    }
+
+    /**
+     * Starts the writer thread. Records written before this are kept in the queue until the thread is started.
+     */
+    public void start() {
+        this.thread.start();
+    }
+
+    /**
+     * Applies new writer settings. Flush and rotation limits apply from the next record on, buffer size and compression from
+     * the next segment on. The queue capacity only applies to writers created after this.
+     */
+    public void setSettings(@Nonnull WriterSettings settings) {
+        // records gathered under the old settings go out first, so turning tick frames off doesn't reorder them
+        this.submitFrame(false);
+        this.settings = settings;
     }
 
     public CompletableFuture<Map.Entry<Path, Path>> restartFile() {
+        this.submitFrame(true);
         CompletableFuture<Map.Entry<Path, Path>> future = new CompletableFuture<>();
-        executor.execute(() -> {
-            var oldFh = this.fh;
-            var oldPath = this.path;
-            var path = dir.toPath().resolve(String.format("%d-logs.txt", System.currentTimeMillis()));
+        this.enqueueCommand(() -> {
             try {
-                this.fh = Files.newBufferedWriter(path);
-                this.path = path;
-
-                if (oldFh != null) {
-                    try {
-                        oldFh.close();
-                    } catch (IOException e) {
-                        log.warn("Failed to close old writer for {}", oldPath, e);
-                    }
-                }
-
-                future.complete(Pair.of(oldPath, path));
+                future.complete(this.rotate());
             } catch (IOException e) {
-                log.warn("Could not create file at {}", path, e);
+                log.warn("Could not rotate to a new segment in {}", dir, e);
                 future.completeExceptionally(e);
             }
         });
@@ -72,47 +169,778 @@ public class JsonWriter implements Closeable {
     }
 
     public void write(@Nonnull String type, @Nonnull Object data) {
-        var payload = new Payload(this.client.getTickCount(), Utils.getTimestamp(), type, data);
-        executor.execute(() -> {
-            var currentFh = this.fh;
-            if (currentFh == null) {
-                log.debug("Skipping write due to closed resource: {}", payload);
-                return;
-            }
-            try {
-                currentFh.write(gson.toJson(payload));
-                currentFh.newLine();
-                currentFh.flush();
-            } catch (IOException e) {
-                log.warn("Failed to write ActionLogger data", e);
+        this.write(type, data, RecordPriority.NORMAL);
+    }
+
+    public void write(@Nonnull String type, @Nonnull Object data, @Nonnull RecordPriority priority) {
+        if (this.closing) {
+            log.debug("Skipping write of {} due to closed writer", type);
+            return;
+        }
+
+        this.metrics.countRecord(type);
+        var settings = this.settings;
+        var payload = this.newPayload(settings, this.tickCount.getAsInt(), type, data);
+        if (settings.isTickFrames()) {
+            this.addToFrame(payload, priority);
+            return;
+        }
+
+        switch (settings.getOverflowPolicy()) {
+            case BLOCK:
+                if (!this.enqueue(payload) && !this.enqueueWithin(payload, TimeUnit.MILLISECONDS.toNanos(settings.getBlockTimeoutMs()))) {
+                    this.countLoss(type, false);
+                }
+                break;
+            case DROP_LOW_PRIORITY:
+                var full = priority != RecordPriority.HIGH && this.queue.size() >= this.queue.capacity() * priority.getMaxQueueFill();
+                if (full || !this.enqueue(payload)) {
+                    this.countLoss(type, false);
+                }
+                break;
+            case COALESCE:
+                // once records are held back, newer ones have to queue up behind them to stay in order
+                if (this.overflowing || !this.enqueue(payload)) {
+                    this.holdBack(payload);
+                }
+                break;
+            case DROP_NEWEST:
+            default:
+                if (!this.enqueue(payload)) {
+                    this.countLoss(type, false);
+                }
+                break;
+        }
+    }
+
+    @Subscribe(priority = 100) // early priority so every record of this tick shares the same clock reading
+    public void onGameTickStarted(GameTick event) {
+        this.clock.tick(this.settings.getTimestampPrecision());
+    }
+
+    @Subscribe(priority = -100) // late priority so the records of this tick are part of the batch
+    public void onGameTick(GameTick event) {
+        this.lastTickNanos = System.nanoTime();
+        this.submitFrame(false);
+        if (this.overflowing) {
+            synchronized (this.overflow) {
+                this.drainOverflow();
             }
+        }
+        if (this.settings.getFlushPolicy() == FlushPolicy.PER_TICK) {
+            this.enqueue(this.flushCommand);
+        }
+    }
+
+    /**
+     * @return a future that completes once every record queued before this call has been flushed to disk
+     */
+    public CompletableFuture<Void> flush() {
+        this.submitFrame(true);
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        this.enqueueCommand(() -> {
+            this.flushQuietly();
+            future.complete(null);
         });
+        return future;
     }
 
     @Override
     public void close() {
-        executor.execute(() -> {
-            var currentFh = this.fh;
-            if (currentFh == null) {
+        this.closeAsync();
+    }
+
+    /**
+     * Closes the current segment once every record queued before this call has been written, then stops the writer thread.
+     *
+     * @return a future that completes once the queue has been drained and all segments are finalized
+     */
+    public CompletableFuture<Void> closeAsync() {
+        if (this.closing) {
+            return this.closed;
+        }
+        this.closing = true;
+
+        this.submitFrame(true);
+        synchronized (this.overflow) {
+            // nothing new is written anymore, so hand over whatever is still held back as soon as there's room
+            for (var payload : this.overflow.values()) {
+                this.enqueueWaiting(payload);
+            }
+            this.overflow.clear();
+            this.overflowing = false;
+        }
+
+        this.enqueueCommand(() -> {
+            this.stopped = true;
+
+            var currentSegment = this.segment;
+            if (currentSegment == null) {
                 return;
             }
-            var currentPath = this.path;
 
+            this.reportLoss();
+
+            this.segment = null;
+            this.resetBatch();
+            this.finalizeSegment(currentSegment);
+        });
+        return this.closed;
+    }
+
+    /**
+     * Opens a new segment and hands the current one off to be finalized in the background
+     *
+     * @return the paths of the old and the new segment
+     */
+    private Map.Entry<Path, Path> rotate() throws IOException {
+        var settings = this.settings;
+        var oldSegment = this.segment;
+        if (oldSegment != null) {
+            // so every segment accounts for what's missing from it. Written before the new segment is started, as the
+            // encoder may be shared between both and must start the new segment over.
+            this.reportLoss();
+        }
+        var encoder = this.encoderFor(settings.getFormat());
+        var newSegment = Segment.open(dir.toPath(), settings);
+        try {
+            newSegment.writeHeader(encoder.startSegment(settings));
+        } catch (IOException e) {
+            // don't leave a segment without a header behind for readers and recovery to trip over
             try {
-                currentFh.close();
-                this.fh = null;
-                this.path = null;
-            } catch (IOException e) {
-                log.warn("Failed to close file at {}", currentPath, e);
+                newSegment.discard();
+            } catch (IOException discardFailure) {
+                e.addSuppressed(discardFailure);
             }
-        });
+            throw e;
+        }
+        this.segment = newSegment;
+        this.encoder = encoder;
+        this.metrics.segments.incrementAndGet();
+        this.metrics.segmentBytes = newSegment.getBytes();
+
+        if (oldSegment == null) {
+            return Pair.of(null, newSegment.getPath());
+        }
+
+        // finalizing flushes whatever is left of the current batch, and syncs it if there's a sync policy
+        this.resetBatch();
+        this.unsynced = false;
+        this.finalizer.execute(() -> this.finalizeSegment(oldSegment));
+        return Pair.of(oldSegment.getPath(), newSegment.getPath());
+    }
+
+    private void rotateIfDue() {
+        var currentSegment = this.segment;
+        if (currentSegment == null || currentSegment.getTicks() == 0) {
+            return;
+        }
+
+        var now = System.nanoTime();
+        if (this.rotateFailing && now - this.rotateRetryAt < 0) {
+            return;
+        }
+
+        var settings = this.settings;
+        var due = (settings.getRotateMaxBytes() > 0 && currentSegment.getBytes() >= settings.getRotateMaxBytes())
+            || (settings.getRotateMaxTicks() > 0 && currentSegment.getTicks() >= settings.getRotateMaxTicks())
+            || (settings.getRotateIntervalMs() > 0 && System.currentTimeMillis() - currentSegment.getOpenedAtMillis() >= settings.getRotateIntervalMs());
+        if (!due) {
+            return;
+        }
+
+        try {
+            var paths = this.rotate();
+            log.debug("Rotated {} to {}", paths.getKey(), paths.getValue());
+            if (this.rotateFailing) {
+                log.info("Rotating segments in {} works again", dir);
+                this.rotateFailing = false;
+            }
+        } catch (IOException e) {
+            // keep writing to the current segment, and only log the first of a run of failures
+            if (!this.rotateFailing) {
+                log.warn("Could not rotate {}, retrying every {} seconds", currentSegment.getPath(), TimeUnit.NANOSECONDS.toSeconds(ROTATE_RETRY_NANOS), e);
+                this.rotateFailing = true;
+            }
+            this.rotateRetryAt = now + ROTATE_RETRY_NANOS;
+        }
+    }
+
+    private void finalizeSegment(Segment segment) {
+        try {
+            segment.close();
+        } catch (IOException e) {
+            log.warn("Failed to close file at {}", segment.getPath(), e);
+        }
+    }
+
+    private Payload newPayload(WriterSettings settings, int tick, String type, Object data) {
+        var reading = this.clock.now(settings.getTimestampPrecision());
+        var now = System.nanoTime();
+        var tickNanos = settings.isTickNanos() ? Math.max(0, now - reading.getNanoTime()) : -1;
+        return new Payload(tick, reading.getEpochMillis(), reading.getTs(), tickNanos, type, data, now);
+    }
+
+    private void countLoss(String type, boolean coalesced) {
+        var counters = this.losses.computeIfAbsent(type, t -> new LossCounters());
+        if (coalesced) {
+            counters.coalesced.incrementAndGet();
+            return;
+        }
+
+        counters.dropped.incrementAndGet();
+        var dropped = this.droppedRecords.incrementAndGet();
+        if ((dropped & (dropped - 1)) == 0) {
+            log.warn("Writer queue is full, {} records have been dropped so far", dropped);
+        }
+    }
+
+    private void addToFrame(Payload payload, RecordPriority priority) {
+        synchronized (this.frame) {
+            if (!this.frame.accepts(payload.getTick()) || this.frame.getSize() >= MAX_FRAME_RECORDS) {
+                this.submitFrame(false);
+            }
+            this.frame.add(payload, priority);
+        }
+    }
+
+    /**
+     * Hands the records gathered so far to the writer thread as one item, applying the overflow policy to the whole frame
+     *
+     * @param wait whether to wait for room in the queue regardless of the overflow policy, for records that must not be lost,
+     *             e.g. before the file is closed
+     */
+    private void submitFrame(boolean wait) {
+        if (wait) {
+            TickFrame copy;
+            synchronized (this.frame) {
+                if (this.frame.isEmpty()) {
+                    return;
+                }
+                copy = this.frame.copy(priority -> true, type -> {
+                });
+                this.frame.clear();
+            }
+            // outside of the lock, as the writer thread may need it to make room
+            this.enqueueWaiting(copy);
+            return;
+        }
+
+        synchronized (this.frame) {
+            if (this.frame.isEmpty()) {
+                return;
+            }
+
+            var settings = this.settings;
+            var policy = settings.getOverflowPolicy();
+            TickFrame copy;
+            if (policy == OverflowPolicy.DROP_LOW_PRIORITY) {
+                var fill = this.queue.size();
+                var capacity = this.queue.capacity();
+                copy = this.frame.copy(priority -> priority == RecordPriority.HIGH || fill < capacity * priority.getMaxQueueFill(),
+                    type -> this.countLoss(type, false));
+            } else {
+                copy = this.frame.copy(priority -> true, type -> {
+                });
+            }
+            this.frame.clear();
+            if (copy.isEmpty()) {
+                return;
+            }
+
+            switch (policy) {
+                case BLOCK:
+                    if (!this.enqueue(copy) && !this.enqueueWithin(copy, TimeUnit.MILLISECONDS.toNanos(settings.getBlockTimeoutMs()))) {
+                        this.countFrameLoss(copy);
+                    }
+                    break;
+                case COALESCE:
+                    if (this.overflowing || !this.enqueue(copy)) {
+                        // held back record by record, so they can be merged with newer changes
+                        for (var i = 0; i < copy.getSize(); i++) {
+                            this.holdBack(copy.getPayload(i));
+                        }
+                    }
+                    break;
+                case DROP_LOW_PRIORITY:
+                case DROP_NEWEST:
+                default:
+                    if (!this.enqueue(copy)) {
+                        this.countFrameLoss(copy);
+                    }
+                    break;
+            }
+        }
+    }
+
+    private void countFrameLoss(TickFrame frame) {
+        for (var i = 0; i < frame.getSize(); i++) {
+            this.countLoss(frame.getType(i), false);
+        }
+    }
+
+    /**
+     * Holds a record back until the queue has room again, merging it with an older held back record of the same key
+     */
+    private void holdBack(Payload payload) {
+        var type = payload.getType();
+        var data = payload.getData();
+        synchronized (this.overflow) {
+            this.drainOverflow();
+            if (!this.overflowing && this.enqueue(payload)) {
+                return;
+            }
+
+            if (!(data instanceof Coalescable)) {
+                // there's nothing to merge it with, so it can only skip ahead of the held back records or be lost
+                if (!this.enqueue(payload)) {
+                    this.countLoss(type, false);
+                }
+                return;
+            }
+
+            var key = new OverflowKey(type, ((Coalescable<?>) data).coalesceKey());
+            var older = this.overflow.get(key);
+            if (older != null && older.getData().getClass() == data.getClass()) {
+                // keeps the position of the older record
+                var merged = coalesce(older.getData(), data);
+                this.overflow.put(key, new Payload(payload.getTick(), payload.getTimestamp(), payload.getTs(), payload.getTickNanos(), type, merged, older.getCreatedNanos()));
+                this.countLoss(type, true);
+            } else if (older == null && this.overflow.size() < this.queue.capacity()) {
+                this.overflow.put(key, payload);
+                this.overflowing = true;
+            } else {
+                this.countLoss(type, false);
+            }
+        }
+    }
+
+    /**
+     * Must hold the overflow lock
+     */
+    private void drainOverflow() {
+        var it = this.overflow.values().iterator();
+        while (it.hasNext() && this.enqueue(it.next())) {
+            it.remove();
+        }
+        this.overflowing = !this.overflow.isEmpty();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object coalesce(Object older, Object newer) {
+        return ((Coalescable) older).coalesce((Coalescable) newer);
+    }
+
+    private boolean enqueue(@Nonnull Object item) {
+        if (!this.queue.offer(item)) {
+            return false;
+        }
+        if (this.parked) {
+            LockSupport.unpark(this.thread);
+        }
+        return true;
+    }
+
+    /**
+     * @return false if the queue stayed full for the whole timeout
+     */
+    private boolean enqueueWithin(@Nonnull Object item, long timeoutNanos) {
+        var deadline = System.nanoTime() + timeoutNanos;
+        do {
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            if (this.enqueue(item)) {
+                return true;
+            }
+        } while (System.nanoTime() - deadline < 0);
+        return false;
+    }
+
+    /**
+     * Control commands must not be dropped, so wait for the writer thread to make room for them
+     */
+    private void enqueueCommand(@Nonnull Runnable command) {
+        this.enqueueWaiting(command);
+    }
+
+    private void enqueueWaiting(@Nonnull Object item) {
+        while (!this.enqueue(item)) {
+            if (this.closed.isDone()) {
+                log.debug("Skipping {} due to stopped writer thread", item);
+                return;
+            }
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                var item = this.queue.poll();
+                if (item == null) {
+                    if (this.stopped) {
+                        break;
+                    }
+                    this.writeStaleFrame();
+                    this.rotateIfDue();
+                    this.reportLossIfDue();
+                    this.reportMetricsIfDue();
+                    this.syncIfDue();
+                    this.awaitWork();
+                    continue;
+                }
+
+                try {
+                    // the queue carries both records and control commands so they stay in order
+                    if (item instanceof Payload) {
+                        this.writeRecord((Payload) item);
+                        this.afterWrite();
+                    } else if (item instanceof TickFrame) {
+                        this.writeFrame((TickFrame) item);
+                        this.afterWrite();
+                    } else {
+                        ((Runnable) item).run();
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Unexpected error in ActionLogger writer thread", e);
+                }
+            }
+        } finally {
+            // wait for segments that are still being finalized in the background
+            this.finalizer.shutdown();
+            try {
+                if (!this.finalizer.awaitTermination(10, TimeUnit.SECONDS)) {
+                    log.warn("Timed out waiting for segments to be finalized");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            this.closed.complete(null);
+        }
+    }
+
+    private void awaitWork() {
+        var timeout = MAX_PARK_NANOS;
+        if (this.pendingRecords > 0) {
+            var remaining = this.batchDeadline - System.nanoTime();
+            if (remaining <= 0) {
+                this.flushQuietly();
+                return;
+            }
+            timeout = Math.min(timeout, remaining);
+        }
+
+        this.parked = true;
+        // re-check after announcing that we're about to park, so a producer can't slip a record in unnoticed
+        if (this.queue.isEmpty()) {
+            LockSupport.parkNanos(this, timeout);
+        }
+        this.parked = false;
+    }
+
+    private void afterWrite() {
+        this.rotateIfDue();
+        this.reportLossIfDue();
+        this.reportMetricsIfDue();
+        this.syncIfDue();
+    }
+
+    private void writeRecord(Payload payload) {
+        var currentSegment = this.segment;
+        if (currentSegment == null) {
+            log.debug("Skipping write due to closed resource: {}", payload);
+            return;
+        }
+
+        var metrics = this.metrics;
+        var start = System.nanoTime();
+        metrics.queueDepth.record(this.queue.size());
+        metrics.queueWaitNanos.record(start - payload.getCreatedNanos());
+
+        var checkpoint = currentSegment.isCheckpointDue(payload.getTick());
+        RecordBuffer buffer;
+        try {
+            buffer = this.encoder.encode(payload, checkpoint);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to encode ActionLogger record of type {}", payload.getType(), e);
+            return;
+        }
+        metrics.encodeNanos.record(System.nanoTime() - start);
+
+        try {
+            currentSegment.write(buffer, payload.getTick(), payload.getType(), checkpoint);
+            this.lastRecordTick = payload.getTick();
+            metrics.bytes.addAndGet(buffer.size());
+            metrics.segmentBytes = currentSegment.getBytes();
+            this.onRecordBuffered(buffer.size(), payload.getCreatedNanos());
+        } catch (IOException e) {
+            log.warn("Failed to write ActionLogger data", e);
+            this.encoder.discardLast();
+        }
+    }
+
+    private void writeFrame(TickFrame frame) {
+        var currentSegment = this.segment;
+        if (currentSegment == null) {
+            log.debug("Skipping write of a frame of tick {} due to closed resource", frame.getTick());
+            return;
+        }
+
+        var metrics = this.metrics;
+        var start = System.nanoTime();
+        metrics.queueDepth.record(this.queue.size());
+        metrics.queueWaitNanos.record(start - frame.getCreatedNanos());
+
+        if (this.encoder != this.jsonEncoder) {
+            // binary records only store the change in tick and timestamp, so the frame is written record by record,
+            // still as a single batch
+            var bytes = currentSegment.getBytes();
+            for (var i = 0; i < frame.getSize(); i++) {
+                this.writeToSegment(currentSegment, frame.getPayload(i));
+            }
+            metrics.encodeNanos.record(System.nanoTime() - start);
+            this.onFrameBuffered(currentSegment, frame, (int) (currentSegment.getBytes() - bytes));
+            return;
+        }
+
+        var checkpoint = currentSegment.isCheckpointDue(frame.getTick());
+        RecordBuffer buffer;
+        try {
+            buffer = this.jsonEncoder.encodeFrame(frame);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to encode ActionLogger frame of tick {}", frame.getTick(), e);
+            return;
+        }
+        metrics.encodeNanos.record(System.nanoTime() - start);
+
+        try {
+            currentSegment.writeFrame(buffer, frame, checkpoint);
+        } catch (IOException e) {
+            log.warn("Failed to write ActionLogger data", e);
+            return;
+        }
+        this.onFrameBuffered(currentSegment, frame, buffer.size());
+    }
+
+    /**
+     * Writes one record of a frame without counting it towards the batch
+     */
+    private void writeToSegment(Segment currentSegment, Payload payload) {
+        var checkpoint = currentSegment.isCheckpointDue(payload.getTick());
+        try {
+            var buffer = this.encoder.encode(payload, checkpoint);
+            currentSegment.write(buffer, payload.getTick(), payload.getType(), checkpoint);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write ActionLogger record of type {}", payload.getType(), e);
+            this.encoder.discardLast();
+        }
+    }
+
+    private void onFrameBuffered(Segment currentSegment, TickFrame frame, int bytes) {
+        this.lastRecordTick = frame.getTick();
+        this.metrics.bytes.addAndGet(bytes);
+        this.metrics.segmentBytes = currentSegment.getBytes();
+        try {
+            // a frame counts as one record towards the batch limits, so every record policy flushes once per tick
+            this.onRecordBuffered(bytes, frame.getCreatedNanos());
+        } catch (IOException e) {
+            log.warn("Failed to write ActionLogger data", e);
+        }
+    }
+
+    /**
+     * Writes a frame that wasn't handed over because no tick ended, e.g. on the login screen or while the client is stalled,
+     * once both the frame and the last tick are older than the flush interval or {@link #STALE_FRAME_NANOS}, whichever is
+     * longer, so a tick that is merely late isn't split across frames. Only called while the queue is empty, so nothing
+     * that was written later is in the queue yet.
+     */
+    private void writeStaleFrame() {
+        var now = System.nanoTime();
+        var staleNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(this.settings.getFlushIntervalMs()), STALE_FRAME_NANOS);
+        if (now - this.lastTickNanos < staleNanos) {
+            return;
+        }
+        TickFrame stale;
+        synchronized (this.frame) {
+            if (this.frame.isEmpty() || now - this.frame.getCreatedNanos() < staleNanos) {
+                return;
+            }
+            stale = this.frame.copy(priority -> true, type -> {
+            });
+            this.frame.clear();
+        }
+        this.writeFrame(stale);
+        this.afterWrite();
+    }
+
+    private void reportLossIfDue() {
+        if (System.nanoTime() - this.nextLossReport >= 0) {
+            this.reportLoss();
+        }
+    }
+
+    /**
+     * Writes a LOSS record with the records lost since the last one, if any
+     */
+    private void reportLoss() {
+        this.nextLossReport = System.nanoTime() + LOSS_REPORT_INTERVAL_NANOS;
+
+        Map<String, Long> dropped = new TreeMap<>();
+        Map<String, Long> coalesced = new TreeMap<>();
+        for (var entry : this.losses.entrySet()) {
+            var counters = entry.getValue();
+            var droppedCount = counters.dropped.getAndSet(0);
+            if (droppedCount > 0) {
+                dropped.put(entry.getKey(), droppedCount);
+            }
+            var coalescedCount = counters.coalesced.getAndSet(0);
+            if (coalescedCount > 0) {
+                coalesced.put(entry.getKey(), coalescedCount);
+            }
+        }
+        if (dropped.isEmpty() && coalesced.isEmpty()) {
+            return;
+        }
+
+        // the tick of the last record rather than the current one, which may be ahead of records that are still queued
+        this.writeRecord(this.newPayload(this.settings, this.lastRecordTick, LOSS_TYPE, new LossData(dropped, coalesced)));
+    }
+
+
+    private void reportMetricsIfDue() {
+        var interval = this.settings.getMetricsIntervalMs();
+        if (interval <= 0 || System.nanoTime() - this.nextMetricsReport < 0) {
+            return;
+        }
+
+        this.nextMetricsReport = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(interval);
+        this.writeRecord(this.newPayload(this.settings, this.lastRecordTick, METRICS_TYPE, this.metrics.snapshot()));
+    }
+
+    private RecordEncoder encoderFor(LogFormat format) {
+        if (format == LogFormat.BINARY) {
+            if (this.binaryEncoder == null) {
+                this.binaryEncoder = new BinaryRecordEncoder(this.gson);
+            }
+            return this.binaryEncoder;
+        }
+        return this.jsonEncoder;
+    }
+
+    private void onRecordBuffered(int bytes, long createdNanos) throws IOException {
+        var settings = this.settings;
+        if (this.pendingRecords++ == 0) {
+            this.batchDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.getFlushIntervalMs());
+            this.batchOldestNanos = createdNanos;
+        }
+        this.pendingBytes += bytes;
+
+        if (settings.getFlushPolicy() == FlushPolicy.EVERY_RECORD
+            || this.pendingRecords >= settings.getFlushMaxRecords()
+            || this.pendingBytes >= settings.getFlushMaxBytes()
+            || System.nanoTime() - this.batchDeadline >= 0) {
+            this.flush0();
+        }
+    }
+
+    private void flush0() throws IOException {
+        var currentSegment = this.segment;
+        var flushed = this.pendingRecords > 0;
+        this.resetBatch();
+        if (currentSegment == null) {
+            return;
+        }
+
+        if (this.settings.getSyncPolicy() == SyncPolicy.PER_BATCH) {
+            this.sync(currentSegment);
+        } else {
+            currentSegment.flush();
+            this.unsynced = true;
+        }
+
+        if (flushed) {
+            this.metrics.flushes.incrementAndGet();
+            this.metrics.flushLatencyNanos.record(System.nanoTime() - this.batchOldestNanos);
+        }
+    }
+
+    private void syncIfDue() {
+        var currentSegment = this.segment;
+        if (!this.unsynced || currentSegment == null || this.settings.getSyncPolicy() != SyncPolicy.PERIODIC) {
+            return;
+        }
+        if (System.nanoTime() - this.lastSync < TimeUnit.MILLISECONDS.toNanos(this.settings.getSyncIntervalMs())) {
+            return;
+        }
+
+        try {
+            this.sync(currentSegment);
+        } catch (IOException e) {
+            log.warn("Failed to sync file at {}", currentSegment.getPath(), e);
+        }
+    }
+
+    private void sync(Segment segment) throws IOException {
+        this.lastSync = System.nanoTime();
+        this.unsynced = false;
+        segment.sync();
+    }
+
+    private void recoverPreviousSegment() {
+        var currentSegment = this.segment;
+        SegmentRecovery.Result result;
+        try {
+            var previous = SegmentRecovery.findLatestSegment(this.dir.toPath(), currentSegment != null ? currentSegment.getPath() : null);
+            if (previous == null) {
+                return;
+            }
+            result = SegmentRecovery.recover(previous);
+        } catch (IOException e) {
+            log.warn("Failed to recover the previous segment in {}", this.dir, e);
+            return;
+        }
+
+        if (result != null) {
+            log.info("Recovered {}: cut off {} bytes of a torn record and {} bytes of padding", result.getSegment(), result.getTornBytes(), result.getPaddingBytes());
+            this.writeRecord(this.newPayload(this.settings, this.tickCount.getAsInt(), RECOVERED_TYPE, result));
+        }
+    }
+
+    private void flushQuietly() {
+        if (this.pendingRecords == 0) {
+            return;
+        }
+        try {
+            this.flush0();
+        } catch (IOException e) {
+            log.warn("Failed to flush file at {}", this.segment != null ? this.segment.getPath() : null, e);
+        }
+    }
+
+    private void resetBatch() {
+        this.pendingRecords = 0;
+        this.pendingBytes = 0;
+    }
+
+    private static class LossCounters {
+        final AtomicLong dropped = new AtomicLong();
+        final AtomicLong coalesced = new AtomicLong();
     }
 
     @Value
-    private static class Payload {
-        int tick;
-        String ts;
+    private static class OverflowKey {
         String type;
-        Object data;
+        Object key;
+    }
+
+    @Value
+    private static class LossData {
+        /**
+         * Records that were lost, by type
+         */
+        Map<String, Long> dropped;
+        /**
+         * Records that were merged into a newer record of the same type, by type
+         */
+        Map<String, Long> coalesced;
     }
 }
@@ -0,0 +1,29 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public enum LogFormat {
+    /**
+     * One JSON object per line
+     */
+    JSON("JSON lines", ".txt"),
+    /**
+     * Length-prefixed binary records, see {@link BinaryRecordEncoder}
+     */
+    BINARY("Binary", ".bin");
+
+    private final String name;
+    @Getter
+    private final String extension;
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
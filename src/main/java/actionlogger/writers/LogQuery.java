@@ -0,0 +1,63 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import lombok.Builder;
+import lombok.Value;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Which records {@link LogReader} returns. The type and tick are checked before the data of a record is decoded.
+ */
+@Value
+@Builder
+public class LogQuery {
+    /**
+     * Record types to return, or empty for every type
+     */
+    @Builder.Default
+    Set<String> types = Set.of();
+    /**
+     * First tick to return, inclusive
+     */
+    @Builder.Default
+    int fromTick = Integer.MIN_VALUE;
+    /**
+     * Last tick to return, inclusive
+     */
+    @Builder.Default
+    int toTick = Integer.MAX_VALUE;
+    /**
+     * Conditions every returned record meets
+     */
+    @Builder.Default
+    List<FieldPredicate> predicates = List.of();
+
+    /**
+     * @return whether a record of this type and tick may match
+     */
+    public boolean matches(int tick, @Nonnull String type) {
+        return this.matchesTick(tick) && (types.isEmpty() || types.contains(type));
+    }
+
+    public boolean matchesTick(int tick) {
+        return tick >= fromTick && tick <= toTick;
+    }
+
+    /**
+     * @return whether the record meets the predicates, its type and tick are assumed to match
+     */
+    public boolean matches(@Nonnull Payload payload) {
+        for (var predicate : predicates) {
+            if (!predicate.test(payload)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
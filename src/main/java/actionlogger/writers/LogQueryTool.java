@@ -0,0 +1,132 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import com.google.gson.GsonBuilder;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Prints the records of a set of segments that match a query as JSON lines, merged in tick order, see {@link LogReader}.
+ * <p>
+ * Usage: {@code java -cp actionlogger-all.jar actionlogger.writers.LogQueryTool [options] <segment or directory>...}.
+ */
+public final class LogQueryTool {
+    private static final String USAGE = String.join("\n",
+        "Usage: LogQueryTool [options] <segment or directory>...",
+        "  --type <TYPE>[,<TYPE>...]  only records of these types, may be repeated",
+        "  --from <TICK>              only records from this tick on",
+        "  --to <TICK>                only records up to and including this tick",
+        "  --where <PATH><OP><VALUE>  only records whose field matches, e.g. data.name=Bob, may be repeated.",
+        "                             OP is one of = != < <= > >= ~ (contains)",
+        "  --count                    print the number of matching records instead of the records",
+        "  --threads <N>              decode at most N segments at once, defaults to the number of processors");
+
+    private LogQueryTool() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        var query = LogQuery.builder();
+        Set<String> types = new HashSet<>();
+        List<FieldPredicate> predicates = new ArrayList<>();
+        List<Path> segments = new ArrayList<>();
+        var count = false;
+        var threads = Runtime.getRuntime().availableProcessors();
+
+        try {
+            for (var i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--type":
+                        for (var type : value(args, ++i).split(",")) {
+                            types.add(type.trim());
+                        }
+                        break;
+
+                    case "--from":
+                        query.fromTick(Integer.parseInt(value(args, ++i)));
+                        break;
+
+                    case "--to":
+                        query.toTick(Integer.parseInt(value(args, ++i)));
+                        break;
+
+                    case "--where":
+                        predicates.add(FieldPredicate.parse(value(args, ++i)));
+                        break;
+
+                    case "--count":
+                        count = true;
+                        break;
+
+                    case "--threads":
+                        threads = Math.max(1, Integer.parseInt(value(args, ++i)));
+                        break;
+
+                    default:
+                        if (args[i].startsWith("--")) {
+                            throw new IllegalArgumentException("Unknown option " + args[i]);
+                        }
+                        var path = Path.of(args[i]);
+                        if (Files.isDirectory(path)) {
+                            segments.addAll(LogReader.segmentsIn(path));
+                        } else {
+                            segments.add(path);
+                        }
+                        break;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            segments.clear();
+        }
+
+        if (segments.isEmpty()) {
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        query.types(Set.copyOf(types)).predicates(List.copyOf(predicates));
+        var pool = new ForkJoinPool(threads);
+        // nulls are kept, so records are printed exactly as they were read
+        var encoder = new JsonRecordEncoder(new GsonBuilder().serializeNulls().create());
+        var out = new BufferedOutputStream(System.out, 64 * 1024);
+        var matched = 0L;
+        try (var reader = new LogReader(segments, query.build(), pool)) {
+            while (reader.hasNext()) {
+                var payload = reader.next();
+                matched++;
+                if (!count) {
+                    encoder.encode(payload, false).writeTo(out);
+                }
+            }
+            if (count) {
+                out.write((matched + "\n").getBytes());
+            }
+            out.flush();
+
+            for (var path : reader.getTruncatedSegments()) {
+                System.err.println("Warning: " + path + " ends in a record that was cut off or damaged, which has been skipped");
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException(args[i - 1] + " needs a value");
+        }
+        return args[i];
+    }
+}
@@ -0,0 +1,305 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams the records of several segments, JSON lines or binary, compressed or not, that match a {@link LogQuery}, merged
+ * into one stream ordered by tick.
+ * <p>
+ * Every segment is decoded in batches of up to {@link #BATCH_SIZE} records on a {@link ForkJoinPool}, with the next batch
+ * of a segment decoded while the current one is consumed, so segments are decoded and filtered in parallel while only a
+ * couple of batches per segment are held in memory. The batches are merged on the consuming thread with a k-way merge by
+ * tick, then timestamp, then segment order; records of one segment keep their order. Segments are only meant to be merged
+ * with segments of the same session, since the tick count starts over when the client logs in.
+ * <p>
+ * When a segment has a {@link SegmentIndex} and ticks are ordered within it, decoding starts at the checkpoint of the first
+ * tick of the query and stops after its last tick.
+ * <p>
+ * Decoding errors are thrown from {@link #hasNext()} and {@link #next()} as an {@link UncheckedIOException}.
+ */
+@Slf4j
+public final class LogReader implements Iterator<Payload>, Closeable {
+    static final int BATCH_SIZE = 1024;
+
+    private final LogQuery query;
+    private final ForkJoinPool pool;
+    private final List<Cursor> cursors = new ArrayList<>();
+    private final PriorityQueue<Cursor> heads = new PriorityQueue<>(Comparator
+        .comparingInt((Cursor cursor) -> cursor.head().getTick())
+        .thenComparingLong(cursor -> cursor.head().getTimestamp())
+        .thenComparingInt(cursor -> cursor.order));
+    private boolean started = false;
+
+    /**
+     * @param segments segments in the order records of the same tick and timestamp are returned in, see {@link #segmentsIn(Path)}
+     * @param pool     decodes the segments, e.g. {@link ForkJoinPool#commonPool()}
+     */
+    public LogReader(@Nonnull List<Path> segments, @Nonnull LogQuery query, @Nonnull ForkJoinPool pool) {
+        this.query = query;
+        this.pool = pool;
+        for (var i = 0; i < segments.size(); i++) {
+            this.cursors.add(new Cursor(segments.get(i), i));
+        }
+    }
+
+    /**
+     * @return the segments in the directory, oldest first
+     */
+    @Nonnull
+    public static List<Path> segmentsIn(@Nonnull Path dir) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (var paths = Files.newDirectoryStream(dir)) {
+            for (var path : paths) {
+                if (SegmentRecovery.segmentMillis(path) >= 0) {
+                    segments.add(path);
+                }
+            }
+        }
+        segments.sort(Comparator.comparingLong(SegmentRecovery::segmentMillis).thenComparing(Path::getFileName));
+        return segments;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!this.started) {
+            this.started = true;
+            // start decoding every segment before waiting for any of them
+            for (var cursor : this.cursors) {
+                cursor.prefetch();
+            }
+            for (var cursor : this.cursors) {
+                if (cursor.advance()) {
+                    this.heads.add(cursor);
+                }
+            }
+        }
+        return !this.heads.isEmpty();
+    }
+
+    @Override
+    public Payload next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        var cursor = this.heads.poll();
+        var payload = cursor.head();
+        if (cursor.advance()) {
+            this.heads.add(cursor);
+        }
+        return payload;
+    }
+
+    /**
+     * @return the remaining records, the stream has to be consumed on one thread
+     */
+    @Nonnull
+    public Stream<Payload> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * @return the segments that ended in a record that was cut off or damaged, so far
+     */
+    @Nonnull
+    public List<Path> getTruncatedSegments() {
+        List<Path> truncated = new ArrayList<>();
+        for (var cursor : this.cursors) {
+            if (cursor.truncated) {
+                truncated.add(cursor.path);
+            }
+        }
+        return truncated;
+    }
+
+    @Override
+    public void close() {
+        this.heads.clear();
+        for (var cursor : this.cursors) {
+            cursor.close();
+        }
+    }
+
+    private static final class Batch {
+        final Payload[] records;
+        final int size;
+        /**
+         * Whether the segment has no records after this batch
+         */
+        final boolean last;
+
+        Batch(Payload[] records, int size, boolean last) {
+            this.records = records;
+            this.size = size;
+            this.last = last;
+        }
+    }
+
+    private final class Cursor {
+        final Path path;
+        final int order;
+
+        /**
+         * Only touched by the task decoding the next batch, which never runs concurrently with another one of this cursor
+         */
+        private SegmentReader reader = null;
+        private CompletableFuture<Batch> pending = null;
+        private Batch batch = null;
+        private int pos = -1;
+        private volatile boolean truncated = false;
+
+        Cursor(Path path, int order) {
+            this.path = path;
+            this.order = order;
+        }
+
+        Payload head() {
+            return this.batch.records[this.pos];
+        }
+
+        void prefetch() {
+            this.pending = CompletableFuture.supplyAsync(this::decode, pool);
+        }
+
+        /**
+         * Moves to the next record, waiting for its batch if necessary
+         *
+         * @return false at the end of the segment
+         */
+        boolean advance() {
+            if (this.batch != null && ++this.pos < this.batch.size) {
+                return true;
+            }
+
+            while (this.pending != null) {
+                Batch batch;
+                try {
+                    batch = this.pending.join();
+                } catch (CompletionException e) {
+                    this.pending = null;
+                    if (e.getCause() instanceof UncheckedIOException) {
+                        throw (UncheckedIOException) e.getCause();
+                    }
+                    throw e;
+                }
+
+                this.pending = null;
+                this.batch = batch;
+                this.pos = 0;
+                if (!batch.last) {
+                    this.prefetch();
+                }
+                if (batch.size > 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private Batch decode() {
+            try {
+                if (this.reader == null) {
+                    this.reader = this.open();
+                }
+
+                var records = new Payload[BATCH_SIZE];
+                var size = 0;
+                while (size < records.length) {
+                    var payload = this.reader.next();
+                    if (payload == null) {
+                        this.truncated = this.reader.isTruncated();
+                        this.closeReader();
+                        return new Batch(records, size, true);
+                    }
+                    records[size++] = payload;
+                }
+                return new Batch(records, size, false);
+            } catch (IOException e) {
+                this.closeReader();
+                throw new UncheckedIOException("Failed to read " + this.path, e);
+            } catch (RuntimeException e) {
+                this.closeReader();
+                throw e;
+            }
+        }
+
+        private SegmentReader open() throws IOException {
+            var index = this.readIndex();
+            var tickOrdered = index != null && index.isTickOrdered();
+            var offset = tickOrdered && query.getFromTick() != Integer.MIN_VALUE ? index.findTick(query.getFromTick()) : 0;
+
+            var name = this.path.getFileName().toString();
+            if (name.endsWith(Compression.GZIP.getExtension())) {
+                name = name.substring(0, name.length() - Compression.GZIP.getExtension().length());
+            }
+            if (name.endsWith(LogFormat.BINARY.getExtension())) {
+                var reader = offset > 0
+                    ? BinaryLogReader.open(this.path, offset)
+                    : new BinaryLogReader(SegmentIndex.open(this.path, 0));
+                return new BinarySegmentReader(reader, query, tickOrdered);
+            }
+            return new JsonSegmentReader(SegmentIndex.open(this.path, offset), query, tickOrdered);
+        }
+
+        private SegmentIndex readIndex() {
+            var indexFile = SegmentIndex.pathFor(this.path);
+            if (!Files.exists(indexFile)) {
+                return null;
+            }
+            try {
+                return SegmentIndex.read(indexFile);
+            } catch (IOException e) {
+                log.warn("Failed to read the index of {}, reading the whole segment", this.path, e);
+                return null;
+            }
+        }
+
+        void close() {
+            var pending = this.pending;
+            this.pending = null;
+            if (pending != null) {
+                // the reader belongs to the decoding task until it's done
+                pending.whenComplete((batch, e) -> this.closeReader());
+            } else {
+                this.closeReader();
+            }
+        }
+
+        private void closeReader() {
+            var reader = this.reader;
+            this.reader = null;
+            if (reader == null) {
+                return;
+            }
+            try {
+                reader.close();
+            } catch (IOException e) {
+                log.debug("Failed to close {}", this.path, e);
+            }
+        }
+    }
+}
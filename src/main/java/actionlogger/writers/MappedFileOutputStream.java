@@ -0,0 +1,117 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Appends to a file through a memory-mapped window that's preallocated ahead of the data.
+ * <p>
+ * Writes are plain memory copies, and the file only grows (and has its metadata updated) once per window. Written data is
+ * in the page cache as soon as it's copied, so {@link #flush()} has nothing to do and a killed client loses nothing that
+ * was written. Until the stream is closed and the file truncated to {@link #position()}, the file ends in zero padding.
+ */
+@Slf4j
+final class MappedFileOutputStream extends OutputStream {
+    private final FileChannel channel;
+    private final int windowSize;
+    private MappedByteBuffer window;
+    private long windowStart = 0;
+    private boolean syncing = false;
+
+    MappedFileOutputStream(@Nonnull FileChannel channel, int windowSize) throws IOException {
+        this.channel = channel;
+        this.windowSize = windowSize;
+        this.window = channel.map(FileChannel.MapMode.READ_WRITE, 0, windowSize);
+    }
+
+    /**
+     * @return the number of bytes written so far
+     */
+    long position() {
+        return this.windowStart + this.window.position();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        var window = this.ensureRemaining();
+        window.put((byte) b);
+    }
+
+    @Override
+    public void write(@Nonnull byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            var window = this.ensureRemaining();
+            var n = Math.min(len, window.remaining());
+            window.put(b, off, n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    private MappedByteBuffer ensureRemaining() throws IOException {
+        var window = this.window;
+        if (window == null) {
+            throw new IOException("Stream closed");
+        }
+        if (window.hasRemaining()) {
+            return window;
+        }
+
+        if (this.syncing) {
+            // the window is about to become unreachable, so this is the last chance to force it
+            window.force();
+        }
+
+        // mapping past the end of the file grows it to the end of the new window
+        this.windowStart += window.capacity();
+        this.window = window = this.channel.map(FileChannel.MapMode.READ_WRITE, this.windowStart, this.windowSize);
+        return window;
+    }
+
+    /**
+     * Forces the data written so far to the storage device. Once this has been called, every window that's left behind is
+     * forced as well.
+     */
+    void sync() throws IOException {
+        var window = this.window;
+        if (window == null) {
+            throw new IOException("Stream closed");
+        }
+
+        this.syncing = true;
+        window.force();
+        // the file's size changes with every window
+        this.channel.force(false);
+    }
+
+    /**
+     * Truncates the file to the bytes that were written and closes it
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.window == null) {
+            return;
+        }
+
+        var length = this.position();
+        this.window = null;
+        try {
+            this.channel.truncate(length);
+        } catch (IOException e) {
+            // Windows refuses to truncate a file while a mapping of it is alive, and the mapping is only released once the
+            // buffer is garbage collected. The zero padding is left behind.
+            log.warn("Could not truncate mapped segment to {} bytes", length, e);
+        } finally {
+            this.channel.close();
+        }
+    }
+}
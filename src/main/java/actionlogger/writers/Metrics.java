@@ -0,0 +1,167 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import lombok.Value;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and histograms of what the writer and the trackers are doing, to tell whether the writer keeps up.
+ * <p>
+ * Everything is cumulative since the writer was created. Adding to a counter or histogram doesn't allocate, except for the
+ * first record of a type. {@link #snapshot()} may be called from any thread.
+ */
+public final class Metrics {
+    private final long startNanos = System.nanoTime();
+    private final Map<String, LongAdder> records = new ConcurrentHashMap<>();
+    private final LongAdder[] events = new LongAdder[EventSource.values().length];
+
+    // Only updated from the writer thread
+    final Histogram queueDepth = new Histogram();
+    final Histogram queueWaitNanos = new Histogram();
+    final Histogram encodeNanos = new Histogram();
+    final Histogram flushLatencyNanos = new Histogram();
+    final AtomicLong flushes = new AtomicLong();
+    final AtomicLong bytes = new AtomicLong();
+    final AtomicLong segments = new AtomicLong();
+    volatile long segmentBytes = 0;
+
+    Metrics() {
+        for (var i = 0; i < events.length; i++) {
+            events[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * May be called from any thread
+     */
+    public void countEvent(@Nonnull EventSource source) {
+        events[source.ordinal()].increment();
+    }
+
+    void countRecord(String type) {
+        var counter = records.get(type);
+        if (counter == null) {
+            counter = records.computeIfAbsent(type, t -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    @Nonnull
+    public MetricsData snapshot() {
+        Map<String, Long> records = new TreeMap<>();
+        for (var entry : this.records.entrySet()) {
+            records.put(entry.getKey(), entry.getValue().sum());
+        }
+        Map<String, Long> events = new TreeMap<>();
+        for (var source : EventSource.values()) {
+            events.put(source.toString(), this.events[source.ordinal()].sum());
+        }
+
+        return new MetricsData(
+            (System.nanoTime() - startNanos) / 1_000_000L,
+            records,
+            events,
+            queueDepth.summary(),
+            queueWaitNanos.summary(),
+            encodeNanos.summary(),
+            flushLatencyNanos.summary(),
+            flushes.get(),
+            bytes.get(),
+            segments.get(),
+            segmentBytes
+        );
+    }
+
+    /**
+     * Counts values in power-of-two buckets: bucket 0 holds 0, bucket i holds values from 2^(i-1) up to 2^i - 1
+     */
+    static final class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(64);
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long value) {
+            if (value < 0) {
+                value = 0;
+            }
+            buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(value) & 63);
+            if (value > max.get()) {
+                max.set(value);
+            }
+        }
+
+        HistogramSummary summary() {
+            var counts = new long[64];
+            var count = 0L;
+            for (var i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+                count += counts[i];
+            }
+            var max = this.max.get();
+            return new HistogramSummary(count, percentile(counts, count, 0.5, max), percentile(counts, count, 0.9, max), percentile(counts, count, 0.99, max), max);
+        }
+
+        /**
+         * @return the upper bound of the bucket the percentile falls in, capped at the largest value seen
+         */
+        private static long percentile(long[] counts, long count, double percentile, long max) {
+            var rank = (long) Math.ceil(count * percentile);
+            var seen = 0L;
+            for (var i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    return i == 0 ? 0 : Math.min((1L << i) - 1, max);
+                }
+            }
+            return 0;
+        }
+    }
+
+    @Value
+    public static class HistogramSummary {
+        long count;
+        /**
+         * Upper bounds of the power-of-two buckets the percentiles fall in, capped at {@link #max}
+         */
+        long p50;
+        long p90;
+        long p99;
+        long max;
+    }
+
+    @Value
+    public static class MetricsData {
+        long uptimeMs;
+        /**
+         * Records handed to the writer, by type, including ones that were lost later
+         */
+        Map<String, Long> records;
+        /**
+         * Events the trackers received, by tracker
+         */
+        Map<String, Long> events;
+        HistogramSummary queueDepth;
+        /**
+         * Nanoseconds from a record being handed to the writer until the writer thread picked it up
+         */
+        HistogramSummary queueWaitNanos;
+        HistogramSummary encodeNanos;
+        /**
+         * Nanoseconds from the oldest record of a batch being handed to the writer until the batch was flushed
+         */
+        HistogramSummary flushLatencyNanos;
+        long flushes;
+        long bytes;
+        long segments;
+        long segmentBytes;
+    }
+}
@@ -0,0 +1,85 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free multi-producer single-consumer queue backed by a ring buffer.
+ * <p>
+ * Producers claim a slot by advancing the producer index with a CAS and then publish their element into it.
+ * The single consumer takes elements in claim order, spinning briefly if a slot has been claimed but not yet published.
+ */
+final class MpscQueue<E> {
+    private final AtomicReferenceArray<E> buffer;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong producerIndex = new AtomicLong();
+    private volatile long consumerIndex = 0;
+
+    MpscQueue(int requestedCapacity) {
+        var capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.buffer = new AtomicReferenceArray<>(capacity);
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * May be called from any thread.
+     *
+     * @return false if the queue is full
+     */
+    boolean offer(E element) {
+        long index;
+        do {
+            index = producerIndex.get();
+            if (index - consumerIndex >= capacity) {
+                return false;
+            }
+        } while (!producerIndex.compareAndSet(index, index + 1));
+
+        buffer.lazySet((int) index & mask, element);
+        return true;
+    }
+
+    /**
+     * Must only be called from the consumer thread.
+     *
+     * @return the oldest element, or null if the queue is empty
+     */
+    E poll() {
+        var index = consumerIndex;
+        var slot = (int) index & mask;
+        var element = buffer.get(slot);
+        if (element == null) {
+            if (index == producerIndex.get()) {
+                return null;
+            }
+
+            // a producer claimed this slot but hasn't published its element yet
+            do {
+                Thread.onSpinWait();
+                element = buffer.get(slot);
+            } while (element == null);
+        }
+
+        buffer.lazySet(slot, null);
+        consumerIndex = index + 1;
+        return element;
+    }
+
+    boolean isEmpty() {
+        return producerIndex.get() == consumerIndex;
+    }
+
+    int size() {
+        return (int) Math.max(0, producerIndex.get() - consumerIndex);
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,39 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * What happens to a record when the writer queue is full. Every record that's lost is counted and reported in a LOSS record.
+ */
+@RequiredArgsConstructor
+public enum OverflowPolicy {
+    /**
+     * Wait a short while for the writer thread to make room, then drop the record
+     */
+    BLOCK("Block briefly"),
+    /**
+     * Drop the record that didn't fit
+     */
+    DROP_NEWEST("Drop newest"),
+    /**
+     * Start dropping {@link RecordPriority#LOW} records once the queue is half full, and {@link RecordPriority#NORMAL} ones
+     * once it's nearly full, to keep room for {@link RecordPriority#HIGH} records
+     */
+    DROP_LOW_PRIORITY("Drop low priority first"),
+    /**
+     * Hold {@link Coalescable} records back and merge them with newer records of the same key until the queue has room again.
+     * Other records are dropped while the queue is full.
+     */
+    COALESCE("Coalesce");
+
+    private final String name;
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
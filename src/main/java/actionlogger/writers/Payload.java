@@ -0,0 +1,44 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import lombok.Value;
+
+/**
+ * One record, on its way from a tracker to the writer thread or read back from a segment by {@link LogReader}.
+ * Read records carry their data as a {@link com.google.gson.JsonElement}.
+ */
+@Value
+public class Payload {
+    /**
+     * Names of the envelope fields of a JSON lines record
+     */
+    static final String TICK_FIELD = "tick";
+    static final String TS_FIELD = "ts";
+    static final String NS_FIELD = "ns";
+    static final String TYPE_FIELD = "type";
+    static final String DATA_FIELD = "data";
+    /**
+     * Holds the records of a tick frame, see {@link TickFrame}
+     */
+    static final String RECORDS_FIELD = "records";
+
+    int tick;
+    /**
+     * Epoch milliseconds that {@link #ts} was formatted from
+     */
+    long timestamp;
+    String ts;
+    /**
+     * Nanoseconds between the start of the tick and the record, or -1 if not recorded
+     */
+    long tickNanos;
+    String type;
+    Object data;
+    /**
+     * {@link System#nanoTime()} when the record was handed to the writer, or -1 for records read back from a segment
+     */
+    long createdNanos;
+}
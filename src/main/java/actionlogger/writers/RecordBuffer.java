@@ -0,0 +1,262 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer that a single record is encoded into before it's handed to the output file.
+ * <p>
+ * The writer thread reuses one instance for every record, so once the buffer has grown to fit the largest record,
+ * encoding doesn't allocate. Unlike {@link java.io.ByteArrayOutputStream}, nothing here is synchronized.
+ * <p>
+ * Also implements the primitives of the binary segment format, see {@link BinaryRecordEncoder}.
+ */
+final class RecordBuffer implements BinaryOutput {
+    private final Writer writer = new Utf8Writer();
+    private final byte[] digits = new byte[20];
+    private byte[] buf;
+    private int count = 0;
+
+    RecordBuffer(int initialCapacity) {
+        this.buf = new byte[initialCapacity];
+    }
+
+    /**
+     * @return a {@link Writer} that UTF-8 encodes everything written to it into this buffer
+     */
+    Writer asWriter() {
+        return writer;
+    }
+
+    void write(int b) {
+        ensureCapacity(count + 1);
+        buf[count++] = (byte) b;
+    }
+
+    void write(byte[] bytes, int off, int len) {
+        ensureCapacity(count + len);
+        System.arraycopy(bytes, off, buf, count, len);
+        count += len;
+    }
+
+    /**
+     * Writes the decimal representation of the given value as ASCII, without going through {@link Long#toString(long)}
+     */
+    void writeDecimal(long value) {
+        if (value == Long.MIN_VALUE) {
+            // can't be negated
+            var s = Long.toString(value);
+            for (var i = 0; i < s.length(); i++) {
+                write(s.charAt(i));
+            }
+            return;
+        }
+
+        if (value < 0) {
+            write('-');
+            value = -value;
+        }
+
+        var n = 0;
+        do {
+            digits[n++] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+
+        ensureCapacity(count + n);
+        while (n > 0) {
+            buf[count++] = digits[--n];
+        }
+    }
+
+    /**
+     * Writes an unsigned LEB128 varint
+     */
+    void writeVarint(long value) {
+        ensureCapacity(count + 10);
+        while ((value & ~0x7FL) != 0) {
+            buf[count++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[count++] = (byte) value;
+    }
+
+    void writeZigZag(long value) {
+        writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    @Override
+    public void writeInt(int value) {
+        writeZigZag(value);
+    }
+
+    @Override
+    public void writeString(@Nullable String value) {
+        if (value == null) {
+            writeVarint(0);
+            return;
+        }
+
+        writeVarint(utf8Length(value) + 1L);
+        writeUtf8(value);
+    }
+
+    /**
+     * Writes the UTF-8 bytes of the string, without a length
+     */
+    void writeUtf8(@Nonnull String value) {
+        try {
+            writer.write(value, 0, value.length());
+            // terminate a trailing unpaired surrogate now rather than as part of whatever is written next
+            writer.flush();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Override
+    public void writeIntArray(@Nullable int[] values) {
+        if (values == null) {
+            writeVarint(0);
+            return;
+        }
+
+        writeVarint(values.length + 1L);
+        for (var value : values) {
+            writeZigZag(value);
+        }
+    }
+
+    void writeTo(@Nonnull OutputStream out) throws IOException {
+        out.write(buf, 0, count);
+    }
+
+    byte[] array() {
+        return buf;
+    }
+
+    int size() {
+        return count;
+    }
+
+    void reset() {
+        count = 0;
+    }
+
+    /**
+     * @return the number of bytes {@link #asWriter()} encodes the given string into
+     */
+    static int utf8Length(@Nonnull String s) {
+        var length = 0;
+        for (var i = 0; i < s.length(); i++) {
+            var c = s.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // unpaired, replaced with '?'
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(capacity, buf.length << 1));
+        }
+    }
+
+    private final class Utf8Writer extends Writer {
+        private char highSurrogate = 0;
+
+        @Override
+        public void write(int c) {
+            encode((char) c);
+        }
+
+        @Override
+        public void write(@Nonnull char[] cbuf, int off, int len) {
+            for (var i = off; i < off + len; i++) {
+                encode(cbuf[i]);
+            }
+        }
+
+        @Override
+        public void write(@Nonnull String str, int off, int len) {
+            for (var i = off; i < off + len; i++) {
+                encode(str.charAt(i));
+            }
+        }
+
+        @Override
+        public Writer append(CharSequence csq) {
+            var s = csq == null ? "null" : csq;
+            for (var i = 0; i < s.length(); i++) {
+                encode(s.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public void flush() {
+            if (highSurrogate != 0) {
+                highSurrogate = 0;
+                RecordBuffer.this.write('?');
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private void encode(char c) {
+            if (highSurrogate != 0) {
+                var high = highSurrogate;
+                highSurrogate = 0;
+                if (Character.isLowSurrogate(c)) {
+                    var codePoint = Character.toCodePoint(high, c);
+                    ensureCapacity(count + 4);
+                    buf[count++] = (byte) (0xF0 | (codePoint >> 18));
+                    buf[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    buf[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    buf[count++] = (byte) (0x80 | (codePoint & 0x3F));
+                    return;
+                }
+                // unpaired high surrogate, same replacement as the JDK encoder
+                RecordBuffer.this.write('?');
+            }
+
+            if (c < 0x80) {
+                RecordBuffer.this.write(c);
+            } else if (c < 0x800) {
+                ensureCapacity(count + 2);
+                buf[count++] = (byte) (0xC0 | (c >> 6));
+                buf[count++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c)) {
+                highSurrogate = c;
+            } else if (Character.isLowSurrogate(c)) {
+                RecordBuffer.this.write('?');
+            } else {
+                ensureCapacity(count + 3);
+                buf[count++] = (byte) (0xE0 | (c >> 12));
+                buf[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[count++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+
+/**
+ * Turns records into the bytes of one segment format. Only used from the writer thread.
+ */
+interface RecordEncoder {
+    /**
+     * Resets any per-segment state
+     *
+     * @return the bytes a new segment starts with, possibly empty. Only valid until the next call on this encoder.
+     */
+    RecordBuffer startSegment(@Nonnull WriterSettings settings);
+
+    /**
+     * @param checkpoint whether readers may start reading at this record, see {@link SegmentIndex}. Encoders that encode
+     *                   records relative to previous ones must not rely on them for a checkpoint.
+     * @return the encoded record. Only valid until the next call on this encoder.
+     */
+    RecordBuffer encode(Payload payload, boolean checkpoint) throws IOException;
+
+    /**
+     * Called when the last encoded record couldn't be written to the segment, so the next one must not be encoded relative
+     * to it
+     */
+    default void discardLast() {
+    }
+}
@@ -0,0 +1,45 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+
+/**
+ * Gson {@link JsonWriter} that streams into a {@link RecordBuffer}, writing integers without allocating a String for each.
+ * <p>
+ * Gson's own implementation formats every number through {@link Long#toString(long)}. Here the separator and pending name are
+ * written by {@link JsonWriter#jsonValue(String)} with an empty raw value, after which the digits are appended to the buffer directly.
+ */
+final class RecordJsonWriter extends JsonWriter {
+    private final RecordBuffer buffer;
+
+    RecordJsonWriter(@Nonnull Gson gson, @Nonnull RecordBuffer buffer) {
+        super(buffer.asWriter());
+        this.buffer = buffer;
+        // records are written back to back as top-level values
+        this.setLenient(true);
+        this.setHtmlSafe(gson.htmlSafe());
+        this.setSerializeNulls(gson.serializeNulls());
+    }
+
+    @Override
+    public JsonWriter value(long value) throws IOException {
+        this.jsonValue("");
+        this.buffer.writeDecimal(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Number value) throws IOException {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return this.value(value.longValue());
+        }
+        return super.value(value);
+    }
+}
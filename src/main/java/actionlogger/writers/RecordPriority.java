@@ -0,0 +1,24 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * How important a record is when the writer can't keep up, see {@link OverflowPolicy#DROP_LOW_PRIORITY}
+ */
+@Getter
+@RequiredArgsConstructor
+public enum RecordPriority {
+    LOW(0.5),
+    NORMAL(0.9),
+    HIGH(1.0);
+
+    /**
+     * Share of the queue that may be in use for records of this priority to still be accepted
+     */
+    private final double maxQueueFill;
+}
@@ -0,0 +1,60 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Base for hand-written serializers of record data classes.
+ * <p>
+ * Attach one with {@link com.google.gson.annotations.JsonAdapter} to keep the serialization of high-volume records free of reflection and boxing.
+ * Field names and order must match what Gson would produce through reflection, so the output doesn't change.
+ * Reading is left to Gson's own adapter for the class, which is only looked up once something actually reads a record.
+ */
+public abstract class RecordTypeAdapter<T> implements TypeAdapterFactory {
+    public abstract void write(JsonWriter out, T value) throws IOException;
+
+    @Override
+    public <R> TypeAdapter<R> create(Gson gson, TypeToken<R> type) {
+        var factory = this;
+        return new TypeAdapter<R>() {
+            private TypeAdapter<R> reader;
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void write(JsonWriter out, R value) throws IOException {
+                factory.write(out, (T) value);
+            }
+
+            @Override
+            public R read(JsonReader in) throws IOException {
+                if (reader == null) {
+                    reader = gson.getDelegateAdapter(factory, type);
+                }
+                return reader.read(in);
+            }
+        }.nullSafe();
+    }
+
+    protected static void writeIntArray(JsonWriter out, int[] values) throws IOException {
+        if (values == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginArray();
+        for (var value : values) {
+            out.value(value);
+        }
+        out.endArray();
+    }
+}
@@ -0,0 +1,237 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One log file, from its creation until it's rotated out or the writer is closed.
+ * Owned by the writer thread until it's handed off to be finalized.
+ */
+@Slf4j
+final class Segment implements Closeable {
+    /**
+     * Byte whose lock marks a segment as open. It lies far past any data, so the lock doesn't keep other programs from
+     * reading the segment even where locks are mandatory.
+     */
+    private static final long WRITER_LOCK_POSITION = Long.MAX_VALUE - 1;
+
+    @Getter
+    private final Path path;
+    private final OutputStream out;
+    private final SyncTarget syncTarget;
+    private final boolean syncOnClose;
+    @Nullable
+    private final SegmentIndexWriter index;
+    @Getter
+    private final long openedAtMillis;
+
+    /**
+     * Uncompressed bytes written to this segment
+     */
+    @Getter
+    private long bytes = 0;
+    @Getter
+    private int ticks = 0;
+    private int lastTick = Integer.MIN_VALUE;
+
+    private Segment(Path path, OutputStream out, SyncTarget syncTarget, WriterSettings settings, long openedAtMillis) {
+        this.path = path;
+        this.out = out;
+        this.syncTarget = syncTarget;
+        this.syncOnClose = settings.getSyncPolicy() != SyncPolicy.NONE;
+        this.index = settings.isWriteIndex() ? new SegmentIndexWriter() : null;
+        this.openedAtMillis = openedAtMillis;
+    }
+
+    static Segment open(@Nonnull Path dir, @Nonnull WriterSettings settings) throws IOException {
+        var extension = settings.getFormat().getExtension() + settings.getCompression().getExtension();
+        var now = System.currentTimeMillis();
+        while (true) {
+            var path = dir.resolve(String.format("%d-logs%s", now, extension));
+            try {
+                return create(path, now, settings);
+            } catch (FileAlreadyExistsException e) {
+                // rotated more than once within the same millisecond
+                now++;
+            }
+        }
+    }
+
+    private static Segment create(Path path, long openedAtMillis, WriterSettings settings) throws IOException {
+        var compression = settings.getCompression();
+        var bufferSize = Math.max(8192, settings.getFlushMaxBytes());
+        OutputStream fileOut;
+        SyncTarget syncTarget;
+        switch (settings.getBackend()) {
+            case MAPPED:
+                var mappedChannel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                lockWriter(mappedChannel);
+                MappedFileOutputStream mapped;
+                try {
+                    mapped = new MappedFileOutputStream(mappedChannel, settings.getPreallocateBytes());
+                } catch (IOException e) {
+                    mappedChannel.close();
+                    throw e;
+                }
+                if (compression == Compression.NONE) {
+                    // records are copied straight into the mapped region, there's nothing to gain from buffering them first
+                    return new Segment(path, mapped, mapped::sync, settings, openedAtMillis);
+                }
+                fileOut = mapped;
+                syncTarget = mapped::sync;
+                break;
+            case STREAM:
+            default:
+                var channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                lockWriter(channel);
+                fileOut = Channels.newOutputStream(channel);
+                syncTarget = () -> channel.force(false);
+                break;
+        }
+
+        try {
+            return new Segment(path, new BufferedOutputStream(compression.wrap(fileOut), bufferSize), syncTarget, settings, openedAtMillis);
+        } catch (IOException e) {
+            fileOut.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Marks the segment as being written to until its channel is closed, so {@link SegmentRecovery} leaves it alone
+     */
+    private static void lockWriter(FileChannel channel) {
+        try {
+            channel.tryLock(WRITER_LOCK_POSITION, 1, false);
+        } catch (IOException e) {
+            // e.g. a file system without locks, the segment is still usable
+            log.debug("Could not lock new segment", e);
+        }
+    }
+
+    /**
+     * @param channel channel of the segment, open for writing
+     * @return the lock, or null if a writer still has the segment open, in this process or another one
+     */
+    @Nullable
+    static FileLock tryLockWriter(@Nonnull FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock(WRITER_LOCK_POSITION, 1, false);
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the bytes the segment format starts with
+     */
+    void writeHeader(@Nonnull RecordBuffer header) throws IOException {
+        header.writeTo(this.out);
+        this.bytes += header.size();
+    }
+
+    /**
+     * @return whether the next record should be a checkpoint of the segment's index
+     */
+    boolean isCheckpointDue(int tick) {
+        return this.index != null && this.index.isCheckpointDue(tick, this.bytes);
+    }
+
+    void write(@Nonnull RecordBuffer record, int tick, @Nonnull String type, boolean checkpoint) throws IOException {
+        if (tick != this.lastTick) {
+            this.lastTick = tick;
+            this.ticks++;
+        }
+        record.writeTo(this.out);
+        if (this.index != null) {
+            this.index.add(type, tick, this.bytes, checkpoint);
+        }
+        this.bytes += record.size();
+    }
+
+    /**
+     * Writes the encoded frame, indexing every record in it at the offset of the frame
+     */
+    void writeFrame(@Nonnull RecordBuffer encoded, @Nonnull TickFrame frame, boolean checkpoint) throws IOException {
+        var tick = frame.getTick();
+        if (tick != this.lastTick) {
+            this.lastTick = tick;
+            this.ticks++;
+        }
+        encoded.writeTo(this.out);
+        if (this.index != null) {
+            for (var i = 0; i < frame.getSize(); i++) {
+                this.index.add(frame.getType(i), tick, this.bytes, checkpoint && i == 0);
+            }
+        }
+        this.bytes += encoded.size();
+    }
+
+    void flush() throws IOException {
+        this.out.flush();
+    }
+
+    /**
+     * Flushes buffered data and forces everything written so far to the storage device
+     */
+    void sync() throws IOException {
+        this.out.flush();
+        this.syncTarget.sync();
+    }
+
+    /**
+     * Flushes the remaining buffered data, finishes the compressed stream if any and closes the file.
+     * Mapped segments are truncated to the length of their data.
+     * If the segment was opened with a sync policy, its data is forced to the storage device first.
+     * The index, if any, is written once the data is complete, and not at all if the sync or the close failed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (this.syncOnClose) {
+                this.sync();
+            }
+        } finally {
+            // the file is closed even if the sync failed, only the index is skipped then
+            this.out.close();
+        }
+        if (this.index != null) {
+            this.index.writeTo(SegmentIndex.pathFor(this.path));
+        }
+    }
+
+    /**
+     * Closes a segment that never became usable, e.g. because its header couldn't be written, and deletes it.
+     */
+    void discard() throws IOException {
+        try {
+            this.out.close();
+        } finally {
+            Files.deleteIfExists(this.path);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SyncTarget {
+        void sync() throws IOException;
+    }
+}
@@ -0,0 +1,27 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public enum SegmentBackend {
+    /**
+     * Buffered appends to a regular output stream; the file grows with every flush
+     */
+    STREAM("Buffered stream"),
+    /**
+     * Records are copied straight into a memory-mapped, preallocated region of the file, which is truncated to its real
+     * length once the segment is sealed
+     */
+    MAPPED("Memory-mapped");
+
+    private final String name;
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
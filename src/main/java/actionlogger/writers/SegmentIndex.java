@@ -0,0 +1,241 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import lombok.Getter;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Sidecar index of a segment, written next to it as {@code <segment>.idx} when the segment is closed.
+ * <p>
+ * The index holds sparse checkpoints (tick and offset of the first record of a tick, roughly every 64 KiB) and the offset
+ * of every record by type. Offsets are positions in the uncompressed segment, see {@link #open(Path, long)}.
+ * <p>
+ * In JSON lines segments, every offset is the start of a line. In binary segments, tick and timestamp are deltas, and the
+ * deltas restart at every checkpoint; read binary segments from a checkpoint with {@link BinaryLogReader#open(Path, long)}
+ * and skip to the record with {@link BinaryLogReader#skipTo(long)}.
+ */
+public final class SegmentIndex {
+    public static final String EXTENSION = ".idx";
+
+    /**
+     * Whether ticks never decrease within the segment. If they do, {@link #findTick(int)} can't be used.
+     */
+    @Getter
+    private final boolean tickOrdered;
+    @Getter
+    private final long records;
+    private final int[] checkpointTicks;
+    private final long[] checkpointOffsets;
+    private final Map<String, long[]> typeOffsets;
+
+    private SegmentIndex(boolean tickOrdered, long records, int[] checkpointTicks, long[] checkpointOffsets, Map<String, long[]> typeOffsets) {
+        this.tickOrdered = tickOrdered;
+        this.records = records;
+        this.checkpointTicks = checkpointTicks;
+        this.checkpointOffsets = checkpointOffsets;
+        this.typeOffsets = typeOffsets;
+    }
+
+    @Nonnull
+    public static Path pathFor(@Nonnull Path segment) {
+        return segment.resolveSibling(segment.getFileName() + EXTENSION);
+    }
+
+    @Nonnull
+    public static SegmentIndex read(@Nonnull Path indexFile) throws IOException {
+        var in = new Cursor(Files.readAllBytes(indexFile));
+        var magic = SegmentIndexWriter.MAGIC;
+        for (var b : magic) {
+            if (in.readByte() != b) {
+                throw new IOException("Not an ActionLogger segment index");
+            }
+        }
+        var version = in.readByte();
+        if (version != SegmentIndexWriter.VERSION) {
+            throw new IOException("Unsupported segment index version " + version);
+        }
+        var flags = in.readByte();
+        var records = in.readVarint();
+
+        var checkpointCount = in.readCount();
+        var checkpointTicks = new int[checkpointCount];
+        var checkpointOffsets = new long[checkpointCount];
+        var tick = 0L;
+        var offset = 0L;
+        for (var i = 0; i < checkpointCount; i++) {
+            tick += in.readZigZag();
+            offset += in.readVarint();
+            checkpointTicks[i] = (int) tick;
+            checkpointOffsets[i] = offset;
+        }
+
+        var typeCount = in.readCount();
+        Map<String, long[]> typeOffsets = new HashMap<>();
+        for (var i = 0; i < typeCount; i++) {
+            var type = in.readString();
+            var offsets = new long[in.readCount()];
+            offset = 0;
+            for (var j = 0; j < offsets.length; j++) {
+                offset += in.readVarint();
+                offsets[j] = offset;
+            }
+            typeOffsets.put(type, offsets);
+        }
+
+        return new SegmentIndex((flags & SegmentIndexWriter.FLAG_TICK_ORDERED) != 0, records, checkpointTicks, checkpointOffsets, typeOffsets);
+    }
+
+    @Nonnull
+    public Set<String> getTypes() {
+        return Collections.unmodifiableSet(this.typeOffsets.keySet());
+    }
+
+    /**
+     * @return the offsets of every record of the type, in ascending order
+     */
+    @Nonnull
+    public long[] getOffsets(@Nonnull String type) {
+        var offsets = this.typeOffsets.get(type);
+        return offsets != null ? offsets.clone() : new long[0];
+    }
+
+    /**
+     * @return the offset of the checkpoint to start reading at to see every record from the given tick on
+     * @throws IllegalStateException if the segment isn't {@link #isTickOrdered() tick ordered}
+     */
+    public long findTick(int tick) {
+        if (!this.tickOrdered) {
+            throw new IllegalStateException("Ticks are not ordered within this segment");
+        }
+
+        // last checkpoint at or before the tick. Checkpoints are placed on the first record of a tick, so no record of the
+        // tick can come before it.
+        var i = Arrays.binarySearch(this.checkpointTicks, tick);
+        if (i < 0) {
+            i = Math.max(0, -i - 2);
+        }
+        return this.checkpointOffsets.length > 0 ? this.checkpointOffsets[i] : 0;
+    }
+
+    /**
+     * @return the offset of the last checkpoint at or before the given offset
+     */
+    public long checkpointBefore(long offset) {
+        var i = Arrays.binarySearch(this.checkpointOffsets, offset);
+        if (i < 0) {
+            i = Math.max(0, -i - 2);
+        }
+        return this.checkpointOffsets.length > 0 ? this.checkpointOffsets[i] : 0;
+    }
+
+    /**
+     * Opens a segment at an offset of its uncompressed data. Uncompressed segments are seeked, compressed ones have to be
+     * decompressed up to the offset, but nothing before it is parsed.
+     */
+    @Nonnull
+    public static InputStream open(@Nonnull Path segment, long offset) throws IOException {
+        if (segment.getFileName().toString().endsWith(Compression.GZIP.getExtension())) {
+            var in = new BufferedInputStream(new GZIPInputStream(Files.newInputStream(segment), 64 * 1024), 64 * 1024);
+            try {
+                skipFully(in, offset);
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+            return in;
+        }
+
+        var channel = FileChannel.open(segment, StandardOpenOption.READ);
+        try {
+            channel.position(offset);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024);
+    }
+
+    private static void skipFully(InputStream in, long n) throws IOException {
+        while (n > 0) {
+            var skipped = in.skip(n);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new EOFException("Offset is past the end of the segment");
+                }
+                skipped = 1;
+            }
+            n -= skipped;
+        }
+    }
+
+    private static final class Cursor {
+        private final byte[] bytes;
+        private int pos = 0;
+
+        Cursor(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int readByte() throws IOException {
+            if (this.pos >= this.bytes.length) {
+                throw new EOFException("Segment index is truncated");
+            }
+            return this.bytes[this.pos++] & 0xFF;
+        }
+
+        long readVarint() throws IOException {
+            long value = 0;
+            for (var shift = 0; shift < 64; shift += 7) {
+                var b = this.readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        long readZigZag() throws IOException {
+            var value = this.readVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        int readCount() throws IOException {
+            var count = this.readVarint();
+            if (count > this.bytes.length) {
+                throw new IOException("Corrupt segment index");
+            }
+            return (int) count;
+        }
+
+        String readString() throws IOException {
+            var length = this.readVarint();
+            if (length == 0 || length - 1 > this.bytes.length - this.pos) {
+                throw new IOException("Corrupt segment index");
+            }
+            var value = new String(this.bytes, this.pos, (int) (length - 1), StandardCharsets.UTF_8);
+            this.pos += (int) (length - 1);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds the {@link SegmentIndex} of a segment while it's written. Owned by the segment.
+ * <p>
+ * The index file is laid out as:
+ * <pre>
+ * index      := "ALIX" version:u8 flags:u8 records:varint checkpoints types
+ * checkpoints:= count:varint (tickDelta:zigzag offsetDelta:varint)*
+ * types      := count:varint (type:string records:varint offsetDelta:varint*)*
+ * </pre>
+ * Offsets are positions in the uncompressed segment. Every delta is relative to the previous entry of the same list.
+ */
+final class SegmentIndexWriter {
+    static final byte[] MAGIC = {'A', 'L', 'I', 'X'};
+    static final int VERSION = 1;
+    static final int FLAG_TICK_ORDERED = 0x01;
+    /**
+     * Minimum distance between checkpoints. Checkpoints are only placed on the first record of a tick.
+     */
+    private static final long CHECKPOINT_BYTES = 64 * 1024;
+
+    private final RecordBuffer checkpoints = new RecordBuffer(1024);
+    private final Map<String, TypeOffsets> types = new HashMap<>();
+    private int checkpointCount = 0;
+    private int lastCheckpointTick = 0;
+    private long lastCheckpointOffset = 0;
+    private long records = 0;
+    private int lastTick = 0;
+    private boolean tickOrdered = true;
+
+    /**
+     * @param offset where the next record starts
+     * @return whether the next record should be a checkpoint that readers can start reading at
+     */
+    boolean isCheckpointDue(int tick, long offset) {
+        if (this.records == 0) {
+            return true;
+        }
+        if (tick == this.lastTick) {
+            return false;
+        }
+        return tick < this.lastTick || offset - this.lastCheckpointOffset >= CHECKPOINT_BYTES;
+    }
+
+    void add(@Nonnull String type, int tick, long offset, boolean checkpoint) {
+        if (this.records > 0 && tick < this.lastTick) {
+            // e.g. the tick count was reset by logging out, so ticks can't be searched for anymore
+            this.tickOrdered = false;
+        }
+        this.lastTick = tick;
+        this.records++;
+
+        if (checkpoint) {
+            this.checkpoints.writeZigZag(tick - (long) this.lastCheckpointTick);
+            this.checkpoints.writeVarint(offset - this.lastCheckpointOffset);
+            this.checkpointCount++;
+            this.lastCheckpointTick = tick;
+            this.lastCheckpointOffset = offset;
+        }
+
+        var offsets = this.types.get(type);
+        if (offsets == null) {
+            offsets = new TypeOffsets();
+            this.types.put(type, offsets);
+        }
+        offsets.deltas.writeVarint(offset - offsets.last);
+        offsets.last = offset;
+        offsets.count++;
+    }
+
+    void writeTo(@Nonnull Path path) throws IOException {
+        var out = new RecordBuffer(this.checkpoints.size() + 64);
+        out.write(MAGIC, 0, MAGIC.length);
+        out.write(VERSION);
+        out.write(this.tickOrdered ? FLAG_TICK_ORDERED : 0);
+        out.writeVarint(this.records);
+
+        out.writeVarint(this.checkpointCount);
+        out.write(this.checkpoints.array(), 0, this.checkpoints.size());
+
+        out.writeVarint(this.types.size());
+        for (var entry : this.types.entrySet()) {
+            var offsets = entry.getValue();
+            out.writeString(entry.getKey());
+            out.writeVarint(offsets.count);
+            out.write(offsets.deltas.array(), 0, offsets.deltas.size());
+        }
+
+        try (var file = Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            out.writeTo(file);
+        }
+    }
+
+    private static class TypeOffsets {
+        final RecordBuffer deltas = new RecordBuffer(256);
+        long last = 0;
+        long count = 0;
+    }
+}
@@ -0,0 +1,26 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Streams the records of one segment that match a {@link LogQuery}. Not thread-safe, {@link LogReader} only ever has one
+ * task per segment decoding.
+ */
+interface SegmentReader extends Closeable {
+    /**
+     * @return the next matching record, or null at the end of the segment
+     */
+    @Nullable
+    Payload next() throws IOException;
+
+    /**
+     * @return whether the segment ended in a record that was cut off or damaged
+     */
+    boolean isTruncated();
+}
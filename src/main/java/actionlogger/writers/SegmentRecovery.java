@@ -0,0 +1,191 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Pattern;
+
+/**
+ * Repairs the tail of a segment that wasn't closed properly, e.g. because the client was killed.
+ * <p>
+ * Only plain JSON lines segments are repaired. A torn final line is cut off, as is the zero padding a memory-mapped segment
+ * ends in until it's closed. Segments that are still open in a writer, and segments without a single complete line, are
+ * left alone. The scan only looks at the end of the file: the end of the data is found with a binary search
+ * over the padding, and the last complete line within {@link #MAX_TAIL_SCAN} bytes before it.
+ * <p>
+ * Binary segments are left alone, {@link BinaryLogReader} already stops at a torn record or padding.
+ * Compressed segments can't be repaired by cutting them off.
+ */
+@Slf4j
+final class SegmentRecovery {
+    private static final Pattern SEGMENT_NAME = Pattern.compile("^(\\d+)-logs\\.(txt|bin)(\\.gz)?$");
+    private static final int MAX_TAIL_SCAN = 1024 * 1024;
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private SegmentRecovery() {
+    }
+
+    /**
+     * @param exclude segment that's currently being written to
+     * @return the most recently created segment in {@code dir}, other than {@code exclude}
+     */
+    @Nullable
+    static Path findLatestSegment(@Nonnull Path dir, @Nullable Path exclude) throws IOException {
+        Path latest = null;
+        var latestMillis = Long.MIN_VALUE;
+        try (var paths = Files.newDirectoryStream(dir)) {
+            for (var path : paths) {
+                var millis = segmentMillis(path);
+                if (millis < 0 || path.equals(exclude)) {
+                    continue;
+                }
+                if (millis > latestMillis) {
+                    latest = path;
+                    latestMillis = millis;
+                }
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * @return the creation time in the name of a segment, or -1 if the path isn't named like one
+     */
+    static long segmentMillis(@Nonnull Path path) {
+        var matcher = SEGMENT_NAME.matcher(path.getFileName().toString());
+        if (!matcher.matches()) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(matcher.group(1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return what was cut off, or null if the segment was intact or can't be repaired
+     */
+    @Nullable
+    static Result recover(@Nonnull Path path) throws IOException {
+        if (!path.getFileName().toString().endsWith(LogFormat.JSON.getExtension())) {
+            return null;
+        }
+
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             var lock = Segment.tryLockWriter(channel)) {
+            if (lock == null) {
+                // e.g. a writer that's still being closed after the plugin was restarted, it will close the segment properly
+                log.debug("Not recovering {}, it's still open", path);
+                return null;
+            }
+
+            var size = channel.size();
+            var dataEnd = findDataEnd(channel, size);
+            var validEnd = findLastLineEnd(channel, dataEnd);
+            if (validEnd == -1 && dataEnd == 0) {
+                // nothing but padding
+                validEnd = 0;
+            } else if (validEnd == -1) {
+                log.warn("Could not find the end of a complete record in {}, leaving it as is", path);
+                return null;
+            }
+            if (validEnd == size) {
+                return null;
+            }
+
+            channel.truncate(validEnd);
+            return new Result(path.getFileName().toString(), validEnd, dataEnd - validEnd, size - dataEnd);
+        }
+    }
+
+    /**
+     * JSON lines never contain NUL bytes, so the data is followed by nothing but zero padding, if any.
+     *
+     * @return the offset of the first byte of the padding, or {@code size} without padding
+     */
+    private static long findDataEnd(FileChannel channel, long size) throws IOException {
+        if (size == 0 || readByte(channel, size - 1) != 0) {
+            return size;
+        }
+
+        // invariant: byte low - 1 is data (or low is 0), byte high is padding
+        long low = 0;
+        long high = size - 1;
+        while (low < high) {
+            var mid = (low + high) >>> 1;
+            if (readByte(channel, mid) == 0) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the offset just past the last newline before {@code end}, or -1 if there's none within
+     * {@link #MAX_TAIL_SCAN} bytes
+     */
+    private static long findLastLineEnd(FileChannel channel, long end) throws IOException {
+        var limit = Math.max(0, end - MAX_TAIL_SCAN);
+        var chunk = ByteBuffer.allocate(CHUNK_SIZE);
+        var chunkEnd = end;
+        while (chunkEnd > limit) {
+            var chunkStart = Math.max(limit, chunkEnd - CHUNK_SIZE);
+            chunk.clear().limit((int) (chunkEnd - chunkStart));
+            readFully(channel, chunk, chunkStart);
+            for (var i = chunk.limit() - 1; i >= 0; i--) {
+                if (chunk.get(i) == '\n') {
+                    return chunkStart + i + 1;
+                }
+            }
+            chunkEnd = chunkStart;
+        }
+        return -1;
+    }
+
+    private static byte readByte(FileChannel channel, long position) throws IOException {
+        var buffer = ByteBuffer.allocate(1);
+        readFully(channel, buffer, position);
+        return buffer.get(0);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            var n = channel.read(buffer, position + buffer.position());
+            if (n < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+    }
+
+    @Value
+    static class Result {
+        String segment;
+        /**
+         * Length of the segment after the repair
+         */
+        long validBytes;
+        /**
+         * Bytes of the torn record that were cut off
+         */
+        long tornBytes;
+        /**
+         * Bytes of zero padding that were cut off
+         */
+        long paddingBytes;
+    }
+}
@@ -0,0 +1,33 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * When flushed data is forced from the operating system's cache to the storage device
+ */
+@RequiredArgsConstructor
+public enum SyncPolicy {
+    /**
+     * Leave it to the operating system. Flushed data survives the client being killed, but not a power loss or OS crash.
+     */
+    NONE("None"),
+    /**
+     * After every flushed batch
+     */
+    PER_BATCH("Every flush"),
+    /**
+     * At most once per sync interval
+     */
+    PERIODIC("Periodic");
+
+    private final String name;
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,59 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import lombok.Value;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the wall clock once per game tick, so every record of a tick shares one timestamp that's only formatted once.
+ * <p>
+ * Outside of ticks, e.g. on the login screen, the clock is read again once the last reading is older than a second.
+ */
+final class TickClock {
+    private static final long MAX_AGE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private volatile Reading current = null;
+
+    /**
+     * Reads the clock for the tick that's starting
+     */
+    void tick(@Nonnull TimestampPrecision precision) {
+        this.current = read(precision);
+    }
+
+    /**
+     * May be called from any thread
+     *
+     * @return the reading of the current tick
+     */
+    @Nonnull
+    Reading now(@Nonnull TimestampPrecision precision) {
+        var reading = this.current;
+        if (reading == null || reading.precision != precision || System.nanoTime() - reading.nanoTime >= MAX_AGE_NANOS) {
+            reading = read(precision);
+            this.current = reading;
+        }
+        return reading;
+    }
+
+    private static Reading read(TimestampPrecision precision) {
+        var millis = System.currentTimeMillis();
+        return new Reading(millis, System.nanoTime(), precision, precision.format(millis));
+    }
+
+    @Value
+    static class Reading {
+        long epochMillis;
+        /**
+         * {@link System#nanoTime()} at the time of the reading, to measure offsets within the tick
+         */
+        long nanoTime;
+        TimestampPrecision precision;
+        String ts;
+    }
+}
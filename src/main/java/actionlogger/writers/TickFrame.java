@@ -0,0 +1,151 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import lombok.Getter;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * The records of one game tick, in the order they were written, sharing the tick and the timestamp of the first record.
+ * <p>
+ * {@link JsonWriter} gathers records into one reused frame on the client thread and hands an exact-size {@link #copy()}
+ * to the writer thread at the end of the tick, as a single queue item.
+ */
+final class TickFrame {
+    @Getter
+    private int tick;
+    /**
+     * Epoch milliseconds that {@link #ts} was formatted from
+     */
+    @Getter
+    private long timestamp;
+    @Getter
+    private String ts;
+    /**
+     * {@link System#nanoTime()} when the first record was added
+     */
+    @Getter
+    private long createdNanos;
+
+    private String[] types;
+    private Object[] data;
+    /**
+     * Nanoseconds between {@link #timestamp} and each record, or -1 if not recorded
+     */
+    private long[] tickNanos;
+    private RecordPriority[] priorities;
+    @Getter
+    private int size = 0;
+
+    TickFrame() {
+        this(64);
+    }
+
+    private TickFrame(int capacity) {
+        this.types = new String[capacity];
+        this.data = new Object[capacity];
+        this.tickNanos = new long[capacity];
+        this.priorities = new RecordPriority[capacity];
+    }
+
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * @return whether a record of this tick belongs in this frame
+     */
+    boolean accepts(int tick) {
+        // records written between two ticks have the tick count of the next one, but still the clock reading of the previous
+        // one, so the reading can't tell frames apart
+        return this.size == 0 || this.tick == tick;
+    }
+
+    void add(@Nonnull Payload payload, @Nonnull RecordPriority priority) {
+        if (this.size == 0) {
+            this.tick = payload.getTick();
+            this.timestamp = payload.getTimestamp();
+            this.ts = payload.getTs();
+            this.createdNanos = payload.getCreatedNanos();
+        }
+        if (this.size == this.types.length) {
+            var capacity = this.size * 2;
+            this.types = Arrays.copyOf(this.types, capacity);
+            this.data = Arrays.copyOf(this.data, capacity);
+            this.tickNanos = Arrays.copyOf(this.tickNanos, capacity);
+            this.priorities = Arrays.copyOf(this.priorities, capacity);
+        }
+        var tickNanos = payload.getTickNanos();
+        if (tickNanos >= 0 && payload.getTimestamp() != this.timestamp) {
+            // taken from another clock reading than the first record, so shift it to count from the timestamp of the frame
+            tickNanos = Math.max(0, tickNanos + (payload.getTimestamp() - this.timestamp) * 1_000_000);
+        }
+        this.types[this.size] = payload.getType();
+        this.data[this.size] = payload.getData();
+        this.tickNanos[this.size] = tickNanos;
+        this.priorities[this.size] = priority;
+        this.size++;
+    }
+
+    /**
+     * Drops the records, letting go of their data
+     */
+    void clear() {
+        Arrays.fill(this.data, 0, this.size, null);
+        this.size = 0;
+    }
+
+    /**
+     * @param keep whether a record of this priority is kept in the copy
+     * @param lost called with the type of every record that isn't kept
+     * @return an exact-size copy of the records that are kept
+     */
+    @Nonnull
+    TickFrame copy(@Nonnull Predicate<RecordPriority> keep, @Nonnull Consumer<String> lost) {
+        var copy = new TickFrame(this.size);
+        copy.tick = this.tick;
+        copy.timestamp = this.timestamp;
+        copy.ts = this.ts;
+        copy.createdNanos = this.createdNanos;
+        for (var i = 0; i < this.size; i++) {
+            if (keep.test(this.priorities[i])) {
+                copy.types[copy.size] = this.types[i];
+                copy.data[copy.size] = this.data[i];
+                copy.tickNanos[copy.size] = this.tickNanos[i];
+                copy.priorities[copy.size] = this.priorities[i];
+                copy.size++;
+            } else {
+                lost.accept(this.types[i]);
+            }
+        }
+        return copy;
+    }
+
+    @Nonnull
+    String getType(int i) {
+        return this.types[i];
+    }
+
+    @Nonnull
+    Object getData(int i) {
+        return this.data[i];
+    }
+
+    long getTickNanos(int i) {
+        return this.tickNanos[i];
+    }
+
+    /**
+     * @return the record as it would have been written on its own
+     */
+    @Nonnull
+    Payload getPayload(int i) {
+        return new Payload(this.tick, this.timestamp, this.ts, this.tickNanos[i], this.types[i], this.data[i], this.createdNanos);
+    }
+}
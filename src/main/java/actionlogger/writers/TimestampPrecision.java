@@ -0,0 +1,48 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import lombok.RequiredArgsConstructor;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Precision of the ISO-8601 {@code ts} of records
+ */
+@RequiredArgsConstructor
+public enum TimestampPrecision {
+    /**
+     * {@code 2024-06-11T19:02:10Z}
+     */
+    SECONDS("Seconds"),
+    /**
+     * {@code 2024-06-11T19:02:10.374Z}
+     */
+    MILLISECONDS("Milliseconds");
+
+    private static final DateTimeFormatter MILLISECONDS_FORMAT = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSS'Z'")
+        .withZone(ZoneOffset.UTC);
+
+    private final String name;
+
+    public String format(long epochMillis) {
+        var instant = Instant.ofEpochMilli(epochMillis);
+        switch (this) {
+            case MILLISECONDS:
+                return MILLISECONDS_FORMAT.format(instant);
+            case SECONDS:
+            default:
+                return instant.truncatedTo(ChronoUnit.SECONDS).toString();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,117 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import actionlogger.ActionLoggerConfig;
+import lombok.Builder;
+import lombok.Value;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable snapshot of the writer-related config, so the writer never has to go through the config proxy on its hot path
+ */
+@Value
+@Builder
+public class WriterSettings {
+    @Builder.Default
+    LogFormat format = LogFormat.JSON;
+    @Builder.Default
+    FlushPolicy flushPolicy = FlushPolicy.EVERY_RECORD;
+    @Builder.Default
+    int flushMaxRecords = 512;
+    @Builder.Default
+    int flushMaxBytes = 64 * 1024;
+    @Builder.Default
+    long flushIntervalMs = 1000;
+    @Builder.Default
+    int queueCapacity = 8192;
+    @Builder.Default
+    OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST;
+    /**
+     * How long {@link OverflowPolicy#BLOCK} waits for room in the queue
+     */
+    @Builder.Default
+    int blockTimeoutMs = 5;
+    @Builder.Default
+    SyncPolicy syncPolicy = SyncPolicy.NONE;
+    @Builder.Default
+    long syncIntervalMs = 1000;
+    @Builder.Default
+    SegmentBackend backend = SegmentBackend.STREAM;
+    /**
+     * How far ahead of the data a {@link SegmentBackend#MAPPED} segment is mapped and grown at a time
+     */
+    @Builder.Default
+    int preallocateBytes = 8 * 1024 * 1024;
+
+    @Builder.Default
+    TimestampPrecision timestampPrecision = TimestampPrecision.SECONDS;
+    /**
+     * Whether records carry the nanoseconds since the start of their tick
+     */
+    @Builder.Default
+    boolean tickNanos = false;
+
+    /**
+     * Whether a {@link SegmentIndex} is written next to every segment
+     */
+    @Builder.Default
+    boolean writeIndex = true;
+    @Builder.Default
+    Compression compression = Compression.NONE;
+    /**
+     * 0 disables size based rotation
+     */
+    @Builder.Default
+    long rotateMaxBytes = 0;
+    /**
+     * 0 disables time based rotation
+     */
+    @Builder.Default
+    long rotateIntervalMs = 0;
+    /**
+     * 0 disables tick based rotation
+     */
+    @Builder.Default
+    int rotateMaxTicks = 0;
+    /**
+     * Whether the records of a tick are gathered and written as one {@link TickFrame}
+     */
+    @Builder.Default
+    boolean tickFrames = false;
+    /**
+     * How often a METRICS record is written, 0 to never write one
+     */
+    @Builder.Default
+    long metricsIntervalMs = 0;
+
+    public static WriterSettings from(@Nonnull ActionLoggerConfig config) {
+        return WriterSettings.builder()
+            .format(config.format())
+            .flushPolicy(config.flushPolicy())
+            .flushMaxRecords(Math.max(1, config.flushMaxRecords()))
+            .flushMaxBytes(Math.max(1, config.flushMaxKilobytes()) * 1024)
+            .flushIntervalMs(Math.max(10, config.flushIntervalMs()))
+            .queueCapacity(Math.max(64, config.queueCapacity()))
+            .overflowPolicy(config.overflowPolicy())
+            .blockTimeoutMs(Math.max(1, config.blockTimeoutMs()))
+            .syncPolicy(config.syncPolicy())
+            .syncIntervalMs(Math.max(100, config.syncIntervalMs()))
+            .backend(config.backend())
+            .preallocateBytes(Math.max(1, config.preallocateMegabytes()) * 1024 * 1024)
+            .timestampPrecision(config.timestampPrecision())
+            .tickNanos(config.tickNanos())
+            .writeIndex(config.writeIndex())
+            .compression(config.compression())
+            .rotateMaxBytes(Math.max(0, config.rotateMaxMegabytes()) * 1024L * 1024L)
+            .rotateIntervalMs(TimeUnit.MINUTES.toMillis(Math.max(0, config.rotateIntervalMinutes())))
+            .rotateMaxTicks(Math.max(0, config.rotateMaxTicks()))
+            .tickFrames(config.tickFrames())
+            .metricsIntervalMs(TimeUnit.SECONDS.toMillis(Math.max(0, config.metricsIntervalSeconds())))
+            .build();
+    }
+}
@@ -0,0 +1,105 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.trackers;
+
+import net.runelite.api.Item;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InventoryTrackerTest {
+    private static final int CONTAINER = 93;
+
+    @Test
+    void diffReportsOnlyChangedSlots() {
+        var state = new InventoryTracker.ContainerState(CONTAINER);
+        state.reset(items(995, 100, 1511, 1, -1, 0));
+
+        var length = state.diff(items(995, 90, 1511, 1, 1521, 1));
+        assertArrayEquals(new int[]{
+            0, 995, 100, 995, 90,
+            2, -1, 0, 1521, 1,
+        }, Arrays.copyOf(state.delta, length));
+
+        assertEquals(0, state.diff(items(995, 90, 1511, 1, 1521, 1)));
+    }
+
+    @Test
+    void diffEmptiesSlotsPastShrunkContainer() {
+        var state = new InventoryTracker.ContainerState(CONTAINER);
+        state.reset(items(995, 100, 1511, 1, 1521, 1));
+
+        var length = state.diff(items(995, 100));
+        assertArrayEquals(new int[]{
+            1, 1511, 1, -1, 0,
+            2, 1521, 1, -1, 0,
+        }, Arrays.copyOf(state.delta, length));
+        assertEquals(1, state.size);
+    }
+
+    @Test
+    void diffFillsSlotsOfGrownContainer() {
+        var state = new InventoryTracker.ContainerState(CONTAINER);
+        state.reset(items(995, 100));
+
+        var length = state.diff(items(995, 100, -1, 0, 1511, 3));
+        assertArrayEquals(new int[]{2, -1, 0, 1511, 3}, Arrays.copyOf(state.delta, length));
+        assertEquals(3, state.size);
+    }
+
+    @Test
+    void coalesceMergesSlotsInOrder() {
+        var older = new InventoryTracker.ContainerChangedData(CONTAINER, new int[]{
+            1, 10, 1, 11, 1,
+            4, 40, 1, -1, 0,
+        });
+        var newer = new InventoryTracker.ContainerChangedData(CONTAINER, new int[]{
+            0, -1, 0, 5, 2,
+            4, -1, 0, 44, 3,
+            7, 70, 1, 71, 1,
+        });
+
+        var merged = older.coalesce(newer);
+        assertEquals(CONTAINER, merged.getContainer());
+        // a slot in both keeps the old values of the older record and the new values of the newer one
+        assertArrayEquals(new int[]{
+            0, -1, 0, 5, 2,
+            1, 10, 1, 11, 1,
+            4, 40, 1, 44, 3,
+            7, 70, 1, 71, 1,
+        }, merged.getSlots());
+        assertEquals(CONTAINER, merged.coalesceKey());
+    }
+
+    @Test
+    void coalesceMatchesDiffOverBothChanges() {
+        var state = new InventoryTracker.ContainerState(CONTAINER);
+        state.reset(items(995, 100, 1511, 1, -1, 0, 1521, 1));
+        var first = state.diff(items(995, 50, 1511, 1, 314, 5, 1521, 1));
+        var older = new InventoryTracker.ContainerChangedData(CONTAINER, Arrays.copyOf(state.delta, first));
+        var second = state.diff(items(995, 20, -1, 0, 314, 5, 1521, 1));
+        var newer = new InventoryTracker.ContainerChangedData(CONTAINER, Arrays.copyOf(state.delta, second));
+
+        var direct = new InventoryTracker.ContainerState(CONTAINER);
+        direct.reset(items(995, 100, 1511, 1, -1, 0, 1521, 1));
+        var length = direct.diff(items(995, 20, -1, 0, 314, 5, 1521, 1));
+
+        assertArrayEquals(Arrays.copyOf(direct.delta, length), older.coalesce(newer).getSlots());
+    }
+
+    /**
+     * @param slots id and quantity of every slot
+     */
+    private static Item[] items(int... slots) {
+        var items = new Item[slots.length / 2];
+        for (var i = 0; i < items.length; i++) {
+            items[i] = new Item(slots[2 * i], slots[2 * i + 1]);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,79 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.trackers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VarFilterTest {
+    @Test
+    void parsesIdsAndRanges() {
+        assertEquals(ids(1, 2, 3, 10, 4000, 4001, 4002), VarFilter.parse("1-3, 10, 4000-4002"));
+        assertEquals(ids(5, 6, 7), VarFilter.parse("  5,,6\n7 "));
+        assertEquals(ids(8), VarFilter.parse("8-8"));
+    }
+
+    @Test
+    void parsesEmptyLists() {
+        assertTrue(VarFilter.parse(null).isEmpty());
+        assertTrue(VarFilter.parse("").isEmpty());
+        assertTrue(VarFilter.parse(" , ").isEmpty());
+    }
+
+    @Test
+    void acceptsIdsUpToMaxId() {
+        var ids = VarFilter.parse("0, " + (VarFilter.MAX_ID - 1) + "-" + VarFilter.MAX_ID);
+        assertEquals(ids(0, VarFilter.MAX_ID - 1, VarFilter.MAX_ID), ids);
+    }
+
+    @Test
+    void skipsInvalidEntries() {
+        var max = VarFilter.MAX_ID;
+        assertEquals(ids(1, 4), VarFilter.parse("1, " + (max + 1) + ", " + max + "-" + (max + 1) + ", 4"));
+        assertEquals(ids(1), VarFilter.parse("1, 5-3, -2, abc, 7-, 2-x"));
+        // a dash surrounded by spaces splits the range into separate entries, of which only the ids are kept
+        assertEquals(ids(1, 3), VarFilter.parse("1 - 3"));
+        assertEquals(ids(), VarFilter.parse("99999999999"));
+    }
+
+    @Test
+    void deniesBeforeAllowing() {
+        var filter = new VarFilter();
+        filter.update("10-20", "15");
+
+        assertTrue(filter.test(10));
+        assertTrue(filter.test(20));
+        assertFalse(filter.test(15));
+        assertFalse(filter.test(9));
+        assertFalse(filter.test(21));
+        assertEquals(1, filter.getDeniedCount());
+        assertEquals(2, filter.getNotAllowedCount());
+    }
+
+    @Test
+    void emptyAllowListAllowsEverything() {
+        var filter = new VarFilter();
+        filter.update("", "3");
+
+        assertTrue(filter.test(0));
+        assertTrue(filter.test(VarFilter.MAX_ID));
+        assertTrue(filter.test(Integer.MAX_VALUE));
+        assertFalse(filter.test(3));
+        assertEquals(0, filter.getNotAllowedCount());
+    }
+
+    private static BitSet ids(int... ids) {
+        var set = new BitSet();
+        for (var id : ids) {
+            set.set(id);
+        }
+        return set;
+    }
+}
@@ -0,0 +1,141 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.annotation.Nonnull;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryRecordEncoderTest {
+    private static final long START_MILLIS = 1_718_132_530_000L;
+    private static final WriterSettings SETTINGS = WriterSettings.builder().format(LogFormat.BINARY).build();
+
+    private final Gson gson = new Gson();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void convertsBackToTheJsonLinesOfEveryRecord() throws IOException {
+        var payloads = new ArrayList<Payload>();
+        for (var i = 0; i < 12; i++) {
+            payloads.add(chat(100 + i / 3, i * 250L, "Zezima", "message " + i));
+            payloads.add(payload(100 + i / 3, i * 250L + 10, "CUSTOM", Map.of("i", i, "name", "Zezima")));
+        }
+
+        var segment = new ByteArrayOutputStream();
+        var encoder = new BinaryRecordEncoder(gson);
+        encoder.startSegment(SETTINGS).writeTo(segment);
+        for (var i = 0; i < payloads.size(); i++) {
+            // a few checkpoints in between, so deltas and the dictionary restart mid-segment
+            encoder.encode(payloads.get(i), i % 7 == 0).writeTo(segment);
+        }
+
+        assertEquals(jsonLines(payloads), convert(segment.toByteArray()));
+    }
+
+    @Test
+    void readsFromCheckpointWithoutEarlierRecords() throws IOException {
+        var segment = new ByteArrayOutputStream();
+        var encoder = new BinaryRecordEncoder(gson);
+        encoder.startSegment(SETTINGS).writeTo(segment);
+        encoder.encode(chat(10, 0, "Zezima", "first"), false).writeTo(segment);
+        encoder.encode(chat(11, 600, "Zezima", "second"), false).writeTo(segment);
+        var checkpoint = segment.size();
+        encoder.encode(chat(12, 1200, "Zezima", "third"), true).writeTo(segment);
+        encoder.encode(chat(12, 1300, "Zezima", "fourth"), false).writeTo(segment);
+
+        var path = dir.resolve("segment.bin");
+        Files.write(path, segment.toByteArray());
+        try (var reader = BinaryLogReader.open(path, checkpoint)) {
+            assertTrue(reader.next());
+            assertEquals(checkpoint, reader.getRecordOffset());
+            assertEquals(12, reader.getTick());
+            assertEquals(START_MILLIS + 1200, reader.getTimestamp());
+            assertEquals("{\"type\":\"PUBLICCHAT\",\"name\":\"Zezima\",\"message\":\"third\"}", reader.readData().toString());
+
+            // the name is a dictionary reference again, to the entry the checkpoint record added
+            assertTrue(reader.next());
+            assertEquals("{\"type\":\"PUBLICCHAT\",\"name\":\"Zezima\",\"message\":\"fourth\"}", reader.readData().toString());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void discardedRecordIsNotReferencedByTheNextOne() throws IOException {
+        var first = chat(10, 0, "Zezima", "first");
+        var lost = chat(15, 3000, "Lynx Titan", "lost");
+        var next = chat(16, 3600, "Lynx Titan", "next");
+
+        var segment = new ByteArrayOutputStream();
+        var encoder = new BinaryRecordEncoder(gson);
+        encoder.startSegment(SETTINGS).writeTo(segment);
+        encoder.encode(first, true).writeTo(segment);
+        // as if writing this one to the segment failed
+        encoder.encode(lost, false);
+        encoder.discardLast();
+        encoder.encode(next, false).writeTo(segment);
+
+        assertEquals(jsonLines(List.of(first, next)), convert(segment.toByteArray()));
+    }
+
+    private String convert(byte[] segment) throws IOException {
+        var out = new ByteArrayOutputStream();
+        BinaryLogConverter.convert(gson, new ByteArrayInputStream(segment), out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private String jsonLines(List<Payload> payloads) throws IOException {
+        var out = new ByteArrayOutputStream();
+        var encoder = new JsonRecordEncoder(gson);
+        for (var payload : payloads) {
+            encoder.encode(payload, false).writeTo(out);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static Payload chat(int tick, long millis, String name, String message) {
+        return payload(tick, millis, "CHAT", new ChatData("PUBLICCHAT", name, message));
+    }
+
+    private static Payload payload(int tick, long millis, String type, Object data) {
+        var timestamp = START_MILLIS + millis;
+        return new Payload(tick, timestamp, TimestampPrecision.SECONDS.format(timestamp), -1, type, data, -1);
+    }
+
+    private static class ChatData implements BinaryRecord {
+        final String type;
+        final String name;
+        final String message;
+
+        ChatData(String type, String name, String message) {
+            this.type = type;
+            this.name = name;
+            this.message = message;
+        }
+
+        @Override
+        public void writeBinary(@Nonnull BinaryOutput out) {
+            out.writeString(this.type);
+            out.writeString(this.name);
+            out.writeString(this.message);
+        }
+    }
+}
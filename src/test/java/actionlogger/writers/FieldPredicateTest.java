@@ -0,0 +1,81 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FieldPredicateTest {
+    private static final Payload RECORD = new Payload(120, 1_718_132_530_000L, "2024-06-11T19:02:10Z", -1, "CHAT",
+        JsonParser.parseString("{\"name\":\"Bob\",\"varbitId\":4000,\"slots\":[7,8],\"nested\":{\"level\":\"99\"}}"), -1);
+
+    @Test
+    void parsesEveryOperator() {
+        assertEquals("data.name=Bob", FieldPredicate.parse("data.name=Bob").toString());
+        assertEquals("data.name!=Bob", FieldPredicate.parse("data.name!=Bob").toString());
+        assertEquals("tick<5", FieldPredicate.parse("tick<5").toString());
+        assertEquals("tick<=5", FieldPredicate.parse("tick<=5").toString());
+        assertEquals("tick>5", FieldPredicate.parse("tick>5").toString());
+        assertEquals("tick>=5", FieldPredicate.parse("tick>=5").toString());
+        assertEquals("data.name~o", FieldPredicate.parse("data.name~o").toString());
+    }
+
+    @Test
+    void keepsEverythingAfterTheOperatorAsValue() {
+        assertEquals("data.message=a=b c", FieldPredicate.parse("data.message=a=b c").toString());
+        assertTrue(FieldPredicate.parse("data.name=").toString().endsWith("="));
+    }
+
+    @Test
+    void rejectsInvalidExpressions() {
+        assertThrows(IllegalArgumentException.class, () -> FieldPredicate.parse("data.name"));
+        assertThrows(IllegalArgumentException.class, () -> FieldPredicate.parse("=Bob"));
+        assertThrows(IllegalArgumentException.class, () -> FieldPredicate.parse("data name=Bob"));
+        assertThrows(IllegalArgumentException.class, () -> FieldPredicate.parse(""));
+    }
+
+    @Test
+    void comparesNumbersAsNumbers() {
+        assertTrue(FieldPredicate.parse("data.varbitId>=4000").test(RECORD));
+        assertTrue(FieldPredicate.parse("data.varbitId<10000").test(RECORD));
+        assertTrue(FieldPredicate.parse("data.varbitId=4000.0").test(RECORD));
+        assertFalse(FieldPredicate.parse("data.varbitId>4000").test(RECORD));
+        assertTrue(FieldPredicate.parse("tick=120").test(RECORD));
+    }
+
+    @Test
+    void comparesEverythingElseAsStrings() {
+        assertTrue(FieldPredicate.parse("data.name=Bob").test(RECORD));
+        assertTrue(FieldPredicate.parse("data.name!=bob").test(RECORD));
+        assertTrue(FieldPredicate.parse("data.name~o").test(RECORD));
+        assertTrue(FieldPredicate.parse("type=CHAT").test(RECORD));
+        // a number compared with a non-number falls back to comparing strings
+        assertTrue(FieldPredicate.parse("data.varbitId~00").test(RECORD));
+        assertTrue(FieldPredicate.parse("data.nested.level=99").test(RECORD));
+        assertTrue(FieldPredicate.parse("ts>2024-06-11").test(RECORD));
+    }
+
+    @Test
+    void resolvesArrayIndices() {
+        assertTrue(FieldPredicate.parse("data.slots.1=8").test(RECORD));
+        assertFalse(FieldPredicate.parse("data.slots.2=8").test(RECORD));
+        assertFalse(FieldPredicate.parse("data.slots.01=8").test(RECORD));
+    }
+
+    @Test
+    void neverMatchesMissingFields() {
+        assertFalse(FieldPredicate.parse("data.missing!=Bob").test(RECORD));
+        assertFalse(FieldPredicate.parse("data.name.first=Bob").test(RECORD));
+        assertFalse(FieldPredicate.parse("data.nested!=x").test(RECORD));
+        assertFalse(FieldPredicate.parse("ns>=0").test(RECORD));
+        assertFalse(FieldPredicate.parse("tick.x=1").test(RECORD));
+        assertFalse(FieldPredicate.parse("other=1").test(RECORD));
+    }
+}
@@ -0,0 +1,149 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.runelite.api.events.GameTick;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JsonWriterTest {
+    private final Gson gson = new Gson();
+    private final AtomicInteger tick = new AtomicInteger(1);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void startsBinarySegmentOverAfterLossRecord() throws Exception {
+        var settings = WriterSettings.builder()
+            .format(LogFormat.BINARY)
+            .writeIndex(false)
+            .queueCapacity(8)
+            .overflowPolicy(OverflowPolicy.DROP_NEWEST)
+            .build();
+        var writer = new JsonWriter(this.gson, this.tick::get, settings, this.dir.toFile());
+        // queued behind the commands that open the first segment, so the rotation is the first thing to report losses
+        var rotated = writer.restartFile();
+        // only the first five fit into the queue, the rest are lost while the first segment is still current
+        this.write(writer, 0, 10);
+        writer.start();
+        rotated.get(5, TimeUnit.SECONDS);
+        writer.closeAsync().get(5, TimeUnit.SECONDS);
+
+        var segments = LogReader.segmentsIn(this.dir);
+        assertEquals(2, segments.size());
+
+        var first = this.convert(segments.get(0));
+        assertEquals(1, first.size());
+        var loss = first.get(0);
+        assertEquals("LOSS", loss.get("type").getAsString());
+        assertEquals(5, loss.getAsJsonObject("data").getAsJsonObject("dropped").get("A").getAsInt());
+
+        // the first record of the new segment must not depend on the loss record at the end of the previous one
+        var second = this.convert(segments.get(1));
+        assertEquals(5, second.size());
+        for (var i = 0; i < second.size(); i++) {
+            var record = second.get(i);
+            assertEquals(1 + i, record.get("tick").getAsInt());
+            assertEquals("A", record.get("type").getAsString());
+            assertEquals(i, record.getAsJsonObject("data").get("i").getAsInt());
+        }
+    }
+
+    @Test
+    void keepsLateTickInOneFrame() throws Exception {
+        var settings = WriterSettings.builder()
+            .tickFrames(true)
+            .flushIntervalMs(10)
+            .build();
+        var writer = new JsonWriter(this.gson, this.tick::get, settings, this.dir.toFile());
+        writer.start();
+        writer.write("A", Map.of("i", 0));
+        // longer than the flush interval, but not long enough for the tick to count as stalled
+        Thread.sleep(200);
+        writer.write("A", Map.of("i", 1));
+        writer.onGameTick(new GameTick());
+        this.tick.set(2);
+        writer.write("A", Map.of("i", 2));
+        writer.onGameTick(new GameTick());
+        writer.closeAsync().get(5, TimeUnit.SECONDS);
+
+        var lines = this.readLines(LogReader.segmentsIn(this.dir).get(0));
+        assertEquals(2, lines.size());
+        assertEquals(1, lines.get(0).get("tick").getAsInt());
+        assertEquals(2, lines.get(0).getAsJsonArray("records").size());
+        assertEquals(2, lines.get(1).get("tick").getAsInt());
+        assertEquals(1, lines.get(1).getAsJsonArray("records").size());
+    }
+
+    @Test
+    void writesFrameWithoutTick() throws Exception {
+        var settings = WriterSettings.builder()
+            .tickFrames(true)
+            .flushIntervalMs(10)
+            .build();
+        var writer = new JsonWriter(this.gson, this.tick::get, settings, this.dir.toFile());
+        writer.start();
+        writer.write("A", Map.of("i", 0));
+        // written on its own once it's stale, before the writer is closed
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        List<JsonObject> lines = List.of();
+        while (lines.isEmpty() && System.nanoTime() - deadline < 0) {
+            Thread.sleep(50);
+            var segments = LogReader.segmentsIn(this.dir);
+            if (!segments.isEmpty()) {
+                lines = this.readLines(segments.get(0));
+            }
+        }
+        writer.closeAsync().get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, lines.size());
+        assertEquals(1, lines.get(0).getAsJsonArray("records").size());
+    }
+
+    private void write(JsonWriter writer, int from, int to) {
+        for (var i = from; i < to; i++) {
+            this.tick.set(i + 1);
+            writer.write("A", Map.of("i", i));
+        }
+    }
+
+    private List<JsonObject> readLines(Path segment) throws Exception {
+        List<JsonObject> records = new ArrayList<>();
+        for (var line : Files.readAllLines(segment, StandardCharsets.UTF_8)) {
+            if (!line.isBlank()) {
+                records.add(JsonParser.parseString(line).getAsJsonObject());
+            }
+        }
+        return records;
+    }
+
+    private List<JsonObject> convert(Path segment) throws Exception {
+        var out = new ByteArrayOutputStream();
+        try (var in = Files.newInputStream(segment)) {
+            BinaryLogConverter.convert(this.gson, in, out);
+        }
+        List<JsonObject> records = new ArrayList<>();
+        for (var line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            records.add(JsonParser.parseString(line).getAsJsonObject());
+        }
+        return records;
+    }
+}
@@ -0,0 +1,143 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogReaderTest {
+    private static final long START_MILLIS = 1_718_132_530_000L;
+    /**
+     * More than a batch per segment, so the merge crosses batch boundaries
+     */
+    private static final int TICKS = LogReader.BATCH_SIZE + 500;
+
+    private final Gson gson = new Gson();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void mergesSegmentsByTick() throws IOException {
+        // a JSON segment with the even ticks and a binary one with every tick, so both formats are merged and ticks tie
+        var json = new ArrayList<Payload>();
+        var binary = new ArrayList<Payload>();
+        for (var tick = 0; tick < TICKS; tick++) {
+            if (tick % 2 == 0) {
+                json.add(payload(tick, "JSON", tick));
+            }
+            binary.add(payload(tick, "BINARY", tick));
+        }
+        var jsonSegment = this.writeJson(1000, json);
+        this.writeBinary(2000, binary);
+
+        var segments = LogReader.segmentsIn(this.dir);
+        assertEquals(jsonSegment, segments.get(0));
+        var records = read(segments, LogQuery.builder().build());
+
+        assertEquals(json.size() + binary.size(), records.size());
+        for (var i = 1; i < records.size(); i++) {
+            var previous = records.get(i - 1);
+            var current = records.get(i);
+            assertTrue(previous.getTick() <= current.getTick(), "out of order at " + i);
+            if (previous.getTick() == current.getTick()) {
+                // ties keep the order of the segments
+                assertEquals("JSON", previous.getType());
+                assertEquals("BINARY", current.getType());
+            }
+        }
+        for (var record : records) {
+            assertEquals(record.getTick(), ((JsonElement) record.getData()).getAsJsonObject().get("i").getAsInt());
+        }
+    }
+
+    @Test
+    void filtersByQuery() throws IOException {
+        var json = new ArrayList<Payload>();
+        var binary = new ArrayList<Payload>();
+        for (var tick = 0; tick < TICKS; tick++) {
+            json.add(payload(tick, tick % 3 == 0 ? "A" : "B", tick));
+            binary.add(payload(tick, "A", tick + 100_000));
+        }
+        this.writeJson(1000, json);
+        this.writeBinary(2000, binary);
+
+        var query = LogQuery.builder()
+            .types(Set.of("A"))
+            .fromTick(300)
+            .toTick(1200)
+            .predicates(List.of(FieldPredicate.parse("data.i<100000")))
+            .build();
+        var records = read(LogReader.segmentsIn(this.dir), query);
+
+        var expected = new ArrayList<Integer>();
+        for (var tick = 300; tick <= 1200; tick += 3) {
+            expected.add(tick);
+        }
+        assertEquals(expected, records.stream().map(Payload::getTick).collect(Collectors.toList()));
+    }
+
+    @Test
+    void reportsTruncatedSegments() throws IOException {
+        var segment = this.writeJson(1000, List.of(payload(1, "A", 1), payload(2, "A", 2)));
+        Files.writeString(segment, "{\"tick\":3,\"ts\":\"2024-", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (var reader = new LogReader(List.of(segment), LogQuery.builder().build(), ForkJoinPool.commonPool())) {
+            assertEquals(2, reader.stream().count());
+            assertEquals(List.of(segment), reader.getTruncatedSegments());
+        }
+    }
+
+    private static List<Payload> read(List<Path> segments, LogQuery query) {
+        try (var reader = new LogReader(segments, query, ForkJoinPool.commonPool())) {
+            return reader.stream().collect(Collectors.toList());
+        }
+    }
+
+    private static Payload payload(int tick, String type, int i) {
+        var timestamp = START_MILLIS + tick * 600L;
+        return new Payload(tick, timestamp, TimestampPrecision.SECONDS.format(timestamp), -1, type, Map.of("i", i), -1);
+    }
+
+    private Path writeJson(long millis, List<Payload> payloads) throws IOException {
+        var path = this.dir.resolve(millis + "-logs" + LogFormat.JSON.getExtension());
+        var encoder = new JsonRecordEncoder(this.gson);
+        try (var out = Files.newOutputStream(path)) {
+            for (var payload : payloads) {
+                encoder.encode(payload, false).writeTo(out);
+            }
+        }
+        return path;
+    }
+
+    private Path writeBinary(long millis, List<Payload> payloads) throws IOException {
+        var path = this.dir.resolve(millis + "-logs" + LogFormat.BINARY.getExtension());
+        var encoder = new BinaryRecordEncoder(this.gson);
+        try (var out = Files.newOutputStream(path)) {
+            encoder.startSegment(WriterSettings.builder().format(LogFormat.BINARY).build()).writeTo(out);
+            for (var payload : payloads) {
+                encoder.encode(payload, false).writeTo(out);
+            }
+        }
+        return path;
+    }
+}
@@ -0,0 +1,111 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MpscQueueTest {
+    @Test
+    void roundsCapacityUpToPowerOfTwo() {
+        assertEquals(8, new MpscQueue<>(8).capacity());
+        assertEquals(8, new MpscQueue<>(5).capacity());
+        assertEquals(16, new MpscQueue<>(9).capacity());
+    }
+
+    @Test
+    void rejectsOfferWhenFull() {
+        var queue = new MpscQueue<Integer>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(4));
+        assertEquals(4, queue.size());
+
+        assertEquals(0, (int) queue.poll());
+        assertTrue(queue.offer(4));
+        assertFalse(queue.offer(5));
+    }
+
+    @Test
+    void preservesOrderAcrossWraparound() {
+        var queue = new MpscQueue<Integer>(4);
+        var next = 0;
+        var expected = 0;
+        for (int round = 0; round < 10; round++) {
+            // leave a different number of elements behind each round so the indices wrap at every offset
+            while (queue.offer(next)) {
+                next++;
+            }
+            for (int i = 0; i <= round % 4; i++) {
+                assertEquals(expected++, (int) queue.poll());
+            }
+        }
+        Integer element;
+        while ((element = queue.poll()) != null) {
+            assertEquals(expected++, (int) element);
+        }
+        assertEquals(next, expected);
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void deliversEveryElementFromConcurrentProducers() throws InterruptedException {
+        var queue = new MpscQueue<Integer>(64);
+        var producers = 4;
+        var perProducer = 10_000;
+        var start = new CountDownLatch(1);
+        var threads = new ArrayList<Thread>();
+        for (int p = 0; p < producers; p++) {
+            var base = p * perProducer;
+            var thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    while (!queue.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        var seen = new HashSet<Integer>();
+        var lastPerProducer = new int[producers];
+        Arrays.fill(lastPerProducer, -1);
+        while (seen.size() < producers * perProducer) {
+            var element = queue.poll();
+            if (element == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            assertTrue(seen.add(element));
+
+            // elements from one producer must come out in the order it offered them
+            var producer = element / perProducer;
+            assertTrue(element % perProducer > lastPerProducer[producer]);
+            lastPerProducer[producer] = element % perProducer;
+        }
+        for (var thread : threads) {
+            thread.join();
+        }
+        assertTrue(queue.isEmpty());
+    }
+}
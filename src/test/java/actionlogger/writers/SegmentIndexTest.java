@@ -0,0 +1,130 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SegmentIndexTest {
+    private static final int RECORD_BYTES = 1000;
+    private static final int RECORDS_PER_TICK = 10;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsRecordsAndTypeOffsets() throws IOException {
+        var index = this.writeIndex(100, 50);
+
+        assertEquals(500, index.getRecords());
+        assertTrue(index.isTickOrdered());
+        assertEquals(Set.of("EVEN", "ODD"), index.getTypes());
+        var odd = index.getOffsets("ODD");
+        assertEquals(250, odd.length);
+        assertEquals(RECORD_BYTES, odd[0]);
+        assertEquals(3L * RECORD_BYTES, odd[1]);
+        assertArrayEquals(new long[0], index.getOffsets("MISSING"));
+    }
+
+    @Test
+    void findsCheckpointAtOrBeforeFirstRecordOfTick() throws IOException {
+        var index = this.writeIndex(100, 50);
+        var checkpoints = this.checkpoints(100, 50);
+
+        for (var tick = 100; tick < 150; tick++) {
+            var firstRecord = (long) (tick - 100) * RECORDS_PER_TICK * RECORD_BYTES;
+            var offset = index.findTick(tick);
+            assertTrue(checkpoints.contains(offset), "not a checkpoint: " + offset);
+            assertTrue(offset <= firstRecord);
+            // and no later checkpoint would have done
+            for (var checkpoint : checkpoints) {
+                assertFalse(checkpoint > offset && checkpoint <= firstRecord);
+            }
+        }
+
+        long last = checkpoints.get(checkpoints.size() - 1);
+        assertEquals(0, index.findTick(0));
+        assertEquals(last, index.findTick(1000));
+    }
+
+    @Test
+    void findsCheckpointBeforeOffset() throws IOException {
+        var index = this.writeIndex(100, 50);
+        var checkpoints = this.checkpoints(100, 50);
+        assertTrue(checkpoints.size() > 2);
+
+        long first = checkpoints.get(0);
+        long second = checkpoints.get(1);
+        long last = checkpoints.get(checkpoints.size() - 1);
+        assertEquals(second, index.checkpointBefore(second));
+        assertEquals(second, index.checkpointBefore(second + 1));
+        assertEquals(first, index.checkpointBefore(second - 1));
+        assertEquals(last, index.checkpointBefore(Long.MAX_VALUE));
+    }
+
+    @Test
+    void rejectsTickSearchWhenTicksGoBackwards() throws IOException {
+        var writer = new SegmentIndexWriter();
+        var offset = 0L;
+        for (var tick : new int[]{500, 501, 3, 4}) {
+            writer.add("A", tick, offset, writer.isCheckpointDue(tick, offset));
+            offset += RECORD_BYTES;
+        }
+        var path = this.dir.resolve("backwards.idx");
+        writer.writeTo(path);
+
+        var index = SegmentIndex.read(path);
+        assertFalse(index.isTickOrdered());
+        assertThrows(IllegalStateException.class, () -> index.findTick(4));
+        // the tick going back is a checkpoint, readers can still start there
+        assertEquals(2L * RECORD_BYTES, index.checkpointBefore(3L * RECORD_BYTES));
+    }
+
+    private SegmentIndex writeIndex(int firstTick, int ticks) throws IOException {
+        var writer = new SegmentIndexWriter();
+        var offset = 0L;
+        for (var tick = firstTick; tick < firstTick + ticks; tick++) {
+            for (var i = 0; i < RECORDS_PER_TICK; i++) {
+                writer.add(i % 2 == 0 ? "EVEN" : "ODD", tick, offset, writer.isCheckpointDue(tick, offset));
+                offset += RECORD_BYTES;
+            }
+        }
+        var path = this.dir.resolve("segment.idx");
+        writer.writeTo(path);
+        return SegmentIndex.read(path);
+    }
+
+    /**
+     * @return where {@link #writeIndex} placed checkpoints
+     */
+    private List<Long> checkpoints(int firstTick, int ticks) {
+        var writer = new SegmentIndexWriter();
+        var checkpoints = new ArrayList<Long>();
+        var offset = 0L;
+        for (var tick = firstTick; tick < firstTick + ticks; tick++) {
+            for (var i = 0; i < RECORDS_PER_TICK; i++) {
+                var checkpoint = writer.isCheckpointDue(tick, offset);
+                if (checkpoint) {
+                    checkpoints.add(offset);
+                }
+                writer.add("A", tick, offset, checkpoint);
+                offset += RECORD_BYTES;
+            }
+        }
+        return checkpoints;
+    }
+}
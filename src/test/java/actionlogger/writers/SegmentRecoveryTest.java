@@ -0,0 +1,123 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SegmentRecoveryTest {
+    private static final String LINES = "{\"tick\":1,\"type\":\"A\"}\n{\"tick\":2,\"type\":\"B\"}\n";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void cutsOffZeroPadding() throws IOException {
+        var path = segment(1000, bytes(LINES, 4096));
+
+        var result = SegmentRecovery.recover(path);
+        assertNotNull(result);
+        assertEquals(LINES.length(), result.getValidBytes());
+        assertEquals(0, result.getTornBytes());
+        assertEquals(4096, result.getPaddingBytes());
+        assertEquals(LINES, Files.readString(path));
+    }
+
+    @Test
+    void cutsOffTornLastLine() throws IOException {
+        var torn = "{\"tick\":3,\"ty";
+        var path = segment(1000, bytes(LINES + torn, 0));
+
+        var result = SegmentRecovery.recover(path);
+        assertNotNull(result);
+        assertEquals(LINES.length(), result.getValidBytes());
+        assertEquals(torn.length(), result.getTornBytes());
+        assertEquals(0, result.getPaddingBytes());
+        assertEquals(LINES, Files.readString(path));
+    }
+
+    @Test
+    void cutsOffTornLastLineBeforePadding() throws IOException {
+        var torn = "{\"tick\":3,\"ty";
+        var path = segment(1000, bytes(LINES + torn, 100));
+
+        var result = SegmentRecovery.recover(path);
+        assertNotNull(result);
+        assertEquals(torn.length(), result.getTornBytes());
+        assertEquals(100, result.getPaddingBytes());
+        assertEquals(LINES, Files.readString(path));
+    }
+
+    @Test
+    void leavesIntactSegmentAlone() throws IOException {
+        var path = segment(1000, bytes(LINES, 0));
+
+        assertNull(SegmentRecovery.recover(path));
+        assertEquals(LINES, Files.readString(path));
+    }
+
+    @Test
+    void leavesSegmentWithoutCompleteLineAlone() throws IOException {
+        var content = bytes("{\"tick\":1,\"type\":\"A\"", 64);
+        var path = segment(1000, content);
+
+        assertNull(SegmentRecovery.recover(path));
+        assertArrayEquals(content, Files.readAllBytes(path));
+    }
+
+    @Test
+    void cutsOffSegmentOfOnlyPadding() throws IOException {
+        var path = segment(1000, new byte[512]);
+
+        var result = SegmentRecovery.recover(path);
+        assertNotNull(result);
+        assertEquals(0, result.getValidBytes());
+        assertEquals(512, result.getPaddingBytes());
+        assertEquals(0, Files.size(path));
+    }
+
+    @Test
+    void leavesSegmentOfOpenWriterAlone() throws IOException {
+        var settings = WriterSettings.builder().backend(SegmentBackend.MAPPED).preallocateBytes(64 * 1024).build();
+        try (var open = Segment.open(this.dir, settings)) {
+            var size = Files.size(open.getPath());
+            assertNull(SegmentRecovery.recover(open.getPath()));
+            assertEquals(size, Files.size(open.getPath()));
+        }
+    }
+
+    @Test
+    void findsLatestSegmentByName() throws IOException {
+        segment(1000, bytes(LINES, 0));
+        var latest = segment(3000, bytes(LINES, 0));
+        var current = segment(4000, bytes("", 0));
+        Files.writeString(this.dir.resolve("9000-notes.txt"), LINES);
+
+        assertEquals(latest, SegmentRecovery.findLatestSegment(this.dir, current));
+    }
+
+    private Path segment(long millis, byte[] content) throws IOException {
+        var path = this.dir.resolve(millis + "-logs" + LogFormat.JSON.getExtension());
+        Files.write(path, content);
+        return path;
+    }
+
+    private static byte[] bytes(String data, int padding) {
+        var encoded = data.getBytes(StandardCharsets.UTF_8);
+        var content = new byte[encoded.length + padding];
+        System.arraycopy(encoded, 0, content, 0, encoded.length);
+        return content;
+    }
+}
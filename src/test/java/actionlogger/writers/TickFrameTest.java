@@ -0,0 +1,49 @@
+// SPDX-FileCopyrightText: 2026 pajlada <rasmus.karlsson@pajlada.com>
+//
+// SPDX-License-Identifier: BSD-2-Clause
+
+package actionlogger.writers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TickFrameTest {
+    private static final long START_MILLIS = 1_718_132_530_000L;
+
+    @Test
+    void acceptsRecordsOfTheSameTickFromLaterClockReadings() {
+        var frame = new TickFrame();
+        assertTrue(frame.accepts(10));
+
+        // written before the game tick event, with the reading of the previous tick
+        frame.add(payload(10, 0, 400_000_000L), RecordPriority.NORMAL);
+        // written by game tick subscribers, after the clock was read again
+        assertTrue(frame.accepts(10));
+        frame.add(payload(10, 600, 1_000L), RecordPriority.NORMAL);
+        assertFalse(frame.accepts(11));
+
+        assertEquals(2, frame.getSize());
+        assertEquals(START_MILLIS, frame.getTimestamp());
+        assertEquals(TimestampPrecision.SECONDS.format(START_MILLIS), frame.getTs());
+        assertEquals(400_000_000L, frame.getTickNanos(0));
+        // counts from the timestamp of the frame instead of its own reading
+        assertEquals(600_001_000L, frame.getTickNanos(1));
+    }
+
+    @Test
+    void keepsMissingTickOffsets() {
+        var frame = new TickFrame();
+        frame.add(payload(10, 0, -1), RecordPriority.NORMAL);
+        frame.add(payload(10, 600, -1), RecordPriority.NORMAL);
+
+        assertEquals(-1, frame.getTickNanos(1));
+    }
+
+    private static Payload payload(int tick, long millis, long tickNanos) {
+        var timestamp = START_MILLIS + millis;
+        return new Payload(tick, timestamp, TimestampPrecision.SECONDS.format(timestamp), tickNanos, "A", tick, System.nanoTime());
+    }
+}